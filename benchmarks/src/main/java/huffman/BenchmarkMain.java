@@ -0,0 +1,27 @@
+/* BenchmarkMain.java
+ * Purpose: Runs the JMH benchmarks with allocation profiling turned on
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain{
+  /**
+   * main
+   * Takes the usual JMH command line, e.g a benchmark name pattern or -p corpus=random, and adds -prof gc
+   * @param args, the JMH command line
+   */
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException{
+    CommandLineOptions options = new CommandLineOptions(args);
+    new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+  }
+}//end of BenchmarkMain class
@@ -0,0 +1,67 @@
+/* Corpus.java
+ * Purpose: The fixed inputs every benchmark runs on, written to a temporary file so the file based stages can read them
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+class Corpus{
+  //Variables
+  static final int GENERATED_SIZE = 1 << 20; //Size of the corpora that are made up rather than read
+
+  /**
+   * make
+   * Makes the bytes of a corpus
+   * @param name, frankenstein, random, skewed or repeated
+   * @return data, the bytes of the corpus
+   */
+  static byte[] make(String name) throws IOException{
+    Random random = new Random(20190401); //Fixed seed so every run measures the same bytes
+    byte[] data = new byte[GENERATED_SIZE];
+    if (name.equals("frankenstein")){
+      InputStream in = Corpus.class.getResourceAsStream("/Frankenstein.txt");
+      if (in == null){
+        throw new IOException("Frankenstein.txt is missing from the benchmark jar");
+      }
+      try{
+        return in.readAllBytes();
+      } finally{
+        in.close();
+      }
+    } else if (name.equals("random")){ //Every byte equally likely, does not compress
+      random.nextBytes(data);
+    } else if (name.equals("skewed")){ //Each byte half as likely as the one before, makes very deep trees
+      for (int i = 0; i < data.length; i++){
+        data[i] = (byte)Math.min(Long.numberOfTrailingZeros(random.nextLong() | (1L << 40)), 255);
+      }
+    } else if (name.equals("repeated")){ //One byte over and over, a tree with a single leaf
+      for (int i = 0; i < data.length; i++){
+        data[i] = 'a';
+      }
+    } else {
+      throw new IllegalArgumentException("Unknown corpus: " + name);
+    }
+    return data;
+  }
+
+  /**
+   * write
+   * Writes a corpus to a new temporary file
+   * @param name, the name of the corpus
+   * @param directory, the directory the file is made in
+   * @return file, the path of the file without its extension, the extension is .bin
+   */
+  static String write(String name, Path directory) throws IOException{
+    Path file = directory.resolve(name);
+    Files.write(directory.resolve(name + ".bin"), make(name));
+    return file.toString();
+  }
+}//end of Corpus class
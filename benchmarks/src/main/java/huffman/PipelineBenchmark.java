@@ -0,0 +1,248 @@
+/* PipelineBenchmark.java
+ * Purpose: JMH benchmarks for every stage of compressing and decompressing an MZIP file
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineBenchmark{
+  //Variables
+  private static final int STREAMS = 4; //Streams in the interleaved block, the count DecodeTable has its own loop for
+  @Param({"frankenstein", "random", "skewed", "repeated"})
+  public String corpus;
+
+  private Path directory;
+  private String file; //Corpus file without its extension
+  private String fileName;
+  private Compression<String> compression;
+  private long[] frequencyArray;
+  private BinaryTreeNode<Byte> huffTree;
+  private HuffmanTree flatTree; //Built again in place by buildFlatTree
+  private int[] lengths;
+  private CodeTable table;
+  private String tree;
+  private int extraBits;
+  private byte[] encoded; //Encoded data of the corpus, for decoding
+  private long payloadBits;
+  private DecodeTable decodeTable;
+  private byte[] interleaved; //The corpus coded as one block of four interleaved streams
+  private byte[] data; //The corpus itself, for the adaptive stream
+  private byte[] adaptiveEncoded; //MZIP data made by AdaptiveOutputStream
+  private byte[] lzEncoded; //MZIP data made by LzOutputStream
+  private byte[] contextEncoded; //MZIP data made with a table for each context
+  private SeekableMzipChannel seekable; //Block mode MZIP file of the corpus with 64 KB blocks
+  private ByteBuffer range;
+  private long rangeStart;
+
+  /**
+   * setUp
+   * Writes the corpus to a file and runs the pipeline once so every stage has its input ready
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException{
+    directory = Files.createTempDirectory("huffman-bench");
+    file = Corpus.write(corpus, directory);
+    fileName = file + ".bin";
+    compression = new Compression<String>();
+    frequencyArray = compression.makeFrequencyArray(fileName);
+    huffTree = compression.makeTree(frequencyArray, Compression.HEAP);
+    flatTree = new HuffmanTree();
+    lengths = new int[256];
+    table = compression.makeCodeTable(huffTree, frequencyArray, Compression.MAX_CODE_LENGTH);
+    tree = compression.printLengths(table);
+    extraBits = compression.extraBits(frequencyArray, table);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BitOutputStream bits = new BitOutputStream(out);
+    compression.printEncoded(table, fileName, bits);
+    payloadBits = bits.getBitsWritten();
+    bits.flush();
+    encoded = out.toByteArray();
+    decodeTable = new DecodeTable(table);
+
+    data = Files.readAllBytes(Path.of(fileName));
+    interleaved = BlockCompression.encodeInterleaved(table, data, data.length, STREAMS);
+    out = new ByteArrayOutputStream();
+    Compression.compressAdaptive(new ByteArrayInputStream(data), out, "corpus.bin");
+    adaptiveEncoded = out.toByteArray();
+    out = new ByteArrayOutputStream();
+    Compression.compressLz(new ByteArrayInputStream(data), out, "corpus.bin", MatchFinder.DEFAULT_LEVEL, LzOutputStream.DEFAULT_WINDOW);
+    lzEncoded = out.toByteArray();
+    out = new ByteArrayOutputStream();
+    Compression.compressContext(new ByteArrayInputStream(data), out, "corpus.bin");
+    contextEncoded = out.toByteArray();
+
+    Path blocks = directory.resolve("blocks.MZIP");
+    Compression.compress(Path.of(fileName), blocks, 1 << 16, false);
+    seekable = new SeekableMzipChannel(blocks);
+    range = ByteBuffer.allocate(4096);
+    rangeStart = 0;
+  }
+
+  /**
+   * tearDown
+   * Deletes the corpus and the MZIP files made by the benchmarks
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException{
+    seekable.close();
+    try (Stream<Path> files = Files.walk(directory)){
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  /* QueueState
+   * A fresh priority queue for every call, because buildTree empties the queue it is given
+   */
+  @State(Scope.Thread)
+  public static class QueueState{
+    PriorityQ<BinaryTreeNode<Byte>> queue;
+
+    @Setup(Level.Invocation)
+    public void setUp(PipelineBenchmark benchmark){
+      queue = benchmark.compression.makeQueue(benchmark.frequencyArray);
+    }
+  }
+
+  @Benchmark
+  public long[] makeFrequencyArray() throws IOException{
+    return compression.makeFrequencyArray(fileName);
+  }
+
+  @Benchmark
+  public PriorityQ<BinaryTreeNode<Byte>> makeQueue(){
+    return compression.makeQueue(frequencyArray);
+  }
+
+  @Benchmark
+  public BinaryTreeNode<Byte> buildTree(QueueState state){
+    return compression.buildTree(state.queue);
+  }
+
+  @Benchmark
+  public BinaryTreeNode<Byte> buildTreeSorted(){
+    return compression.buildTreeSorted(frequencyArray);
+  }
+
+  @Benchmark
+  public int buildFlatTree(){
+    return flatTree.build(frequencyArray).getLengths(lengths);
+  }
+
+  @Benchmark
+  public String printTree(){
+    return compression.printTree(frequencyArray);
+  }
+
+  @Benchmark
+  public CodeTable makeCodeTable(){
+    return compression.makeCodeTable(huffTree, frequencyArray, Compression.MAX_CODE_LENGTH);
+  }
+
+  @Benchmark
+  public CodeTable cachedCodeTable(){
+    return TableCache.shared().getCodeTable(frequencyArray);
+  }
+
+  @Benchmark
+  public long printEncoded() throws IOException{
+    BitOutputStream bits = new BitOutputStream(OutputStream.nullOutputStream());
+    compression.printEncoded(table, fileName, bits);
+    return bits.getBitsWritten();
+  }
+
+  @Benchmark
+  public void outToFile() throws IOException{
+    compression.outToFile(file, ".bin", tree, table, extraBits);
+  }
+
+  @Benchmark
+  public void decode() throws IOException{
+    Decompression decompression = new Decompression();
+    BitInputStream in = new BitInputStream(new ByteArrayInputStream(encoded));
+    decompression.decode(new DecodeTable(table), in, payloadBits, OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public byte[] decodeBlock() throws IOException{
+    return new Decompression().decodeBlock(BlockIndex.HUFFMAN, decodeTable, encoded, extraBits, data.length);
+  }
+
+  @Benchmark
+  public byte[] decodeInterleaved() throws IOException{
+    return new Decompression().decodeBlock(BlockIndex.INTERLEAVED, decodeTable, interleaved, 0, data.length);
+  }
+
+  @Benchmark
+  public int seekableRead() throws IOException{
+    rangeStart = (rangeStart + 100003) % Math.max(1, seekable.size()); //A new block nearly every time
+    range.clear();
+    return seekable.position(rangeStart).read(range);
+  }
+
+  @Benchmark
+  public void adaptiveEncode() throws IOException{
+    AdaptiveOutputStream out = new AdaptiveOutputStream(OutputStream.nullOutputStream(), "corpus.bin");
+    out.write(data);
+    out.finish();
+  }
+
+  @Benchmark
+  public long adaptiveDecode() throws IOException{
+    return new AdaptiveInputStream(new ByteArrayInputStream(adaptiveEncoded)).transferTo(OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public void lzEncode() throws IOException{
+    LzOutputStream out = new LzOutputStream(OutputStream.nullOutputStream(), "corpus.bin");
+    out.write(data);
+    out.finish();
+  }
+
+  @Benchmark
+  public long lzDecode() throws IOException{
+    return new LzInputStream(new ByteArrayInputStream(lzEncoded)).transferTo(OutputStream.nullOutputStream());
+  }
+
+  @Benchmark
+  public void contextEncode() throws IOException{
+    Compression.compressContext(new ByteArrayInputStream(data), OutputStream.nullOutputStream(), "corpus.bin");
+  }
+
+  @Benchmark
+  public String contextDecode() throws IOException{
+    return Decompression.decompress(new ByteArrayInputStream(contextEncoded), OutputStream.nullOutputStream());
+  }
+}//end of PipelineBenchmark class
@@ -0,0 +1,174 @@
+/* AdaptiveInputStream.java
+ * Purpose: Decompresses the data written by AdaptiveOutputStream as it arrives, rebuilding the same codes the writer used
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.InputStream;
+import java.io.IOException;
+
+public class AdaptiveInputStream extends InputStream{
+  //Variables
+  private BitInputStream bits;
+  private AdaptiveModel model;
+  private String name;
+  private byte[] buffer; //Bytes of the last chunk that have not been read yet
+  private int position;
+  private int limit;
+  private boolean ended;
+
+  /**
+   * AdaptiveInputStream
+   * Constructor that reads the MZIP header of adaptive data
+   * @param in, the MZIP data. Bits are read ahead, so nothing after the MZIP data should be read from it
+   */
+  public AdaptiveInputStream(InputStream in) throws IOException{
+    Decompression decompression = new Decompression();
+    String stored = decompression.readLine(in);
+    String tree = decompression.readLine(in);
+    if ((stored == null) || !"A".equals(tree)){
+      throw new IOException("The MZIP data is not in adaptive mode");
+    }
+    this.name = stored;
+    start(in, parseSegmentSize(decompression.readLine(in)));
+  }
+
+  /**
+   * AdaptiveInputStream
+   * Constructor for data whose header was already read
+   * @param in, the MZIP data, positioned after the header
+   * @param segmentSize, the segment size from the header
+   */
+  AdaptiveInputStream(InputStream in, int segmentSize){
+    start(in, segmentSize);
+  }
+
+  /**
+   * start
+   * Gets ready to decode the first chunk
+   * @param in, the MZIP data, positioned after the header
+   * @param segmentSize, the segment size from the header
+   */
+  private void start(InputStream in, int segmentSize){
+    this.bits = new BitInputStream(in);
+    this.model = new AdaptiveModel(segmentSize, true);
+    this.buffer = new byte[Math.min(segmentSize, AdaptiveOutputStream.CHUNK_SIZE)];
+    this.position = 0;
+    this.limit = 0;
+    this.ended = false;
+  }
+
+  /**
+   * parseSegmentSize
+   * Reads the segment size from the third line of an adaptive header
+   * @param line, the third line of the header, e.g A65536
+   * @return segmentSize, the number of bytes coded with one table
+   */
+  static int parseSegmentSize(String line) throws IOException{
+    try{
+      int segmentSize = Integer.parseInt(line.substring(1));
+      if (line.charAt(0) == 'A' && segmentSize > 0){
+        return segmentSize;
+      }
+    } catch (RuntimeException e){ //Missing line, missing marker or not a number
+    }
+    throw new IOException("The segment size in the header is not valid");
+  }
+
+  /**
+   * getName
+   * Gets the file name and extension stored in the header
+   * @return name, the stored name, or null if the header was read somewhere else
+   */
+  public String getName(){
+    return name;
+  }
+
+  /**
+   * read
+   * Reads one byte of the original data
+   * @return b, the byte from 0 to 255, or -1 at the end of the data
+   */
+  @Override
+  public int read() throws IOException{
+    if ((position == limit) && !readChunk()){
+      return -1;
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * read
+   * Reads bytes of the original data, waiting for at most one chunk
+   * @param b, the array the bytes are put in
+   * @param off, the index of the first byte to fill
+   * @param len, the most bytes to read
+   * @return count, the number of bytes read, or -1 at the end of the data
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException{
+    if (len == 0){
+      return 0;
+    }
+    if ((position == limit) && !readChunk()){
+      return -1;
+    }
+    int count = Math.min(len, limit - position);
+    System.arraycopy(buffer, position, b, off, count);
+    position += count;
+    return count;
+  }
+
+  /**
+   * available
+   * Gets the number of decoded bytes that can be read without decoding more
+   * @return count, the bytes left in the last chunk
+   */
+  @Override
+  public int available(){
+    return limit - position;
+  }
+
+  /**
+   * readChunk
+   * Decodes the next chunk with the current table, then lets the model see it
+   * @return found, false if the end of the data was reached
+   */
+  private boolean readChunk() throws IOException{
+    while (!ended){
+      int count = bits.readBits(32);
+      checkCutOff();
+      if (count == (int)AdaptiveOutputStream.END_MARKER){
+        ended = true;
+      } else if (count == AdaptiveOutputStream.FLUSH_MARKER){ //The writer padded to a whole byte here
+        bits.alignToByte();
+      } else if ((count < 0) || (count > buffer.length) || (count > model.remaining())){
+        throw new IOException("The adaptive data has a chunk that is not valid");
+      } else {
+        DecodeTable table = model.getDecodeTable();
+        for (int i = 0; i < count; i++){
+          buffer[i] = (byte)table.decode(bits);
+        }
+        checkCutOff();
+        model.update(buffer, 0, count);
+        position = 0;
+        limit = count;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * checkCutOff
+   * Makes sure the bits used so far came from the stream and not from the padding after its end
+   */
+  private void checkCutOff() throws IOException{
+    if (bits.isPastEnd()){
+      throw new IOException("The adaptive data is cut off");
+    }
+  }
+}//end of AdaptiveInputStream class
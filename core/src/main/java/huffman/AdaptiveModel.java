@@ -0,0 +1,106 @@
+/* AdaptiveModel.java
+ * Purpose: Byte counts and codes that the adaptive encoder and decoder both update the same way as data goes by
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.util.Arrays;
+
+class AdaptiveModel{
+  //Variables
+  static final int DEFAULT_SEGMENT_SIZE = 1 << 16;
+  private static final int FIRST_SEGMENT_SIZE = 1 << 10; //The first codes are flat, so replace them soon
+  private long[] counts; //Every byte starts at 1 so it always has a code
+  private HuffmanTree huffTree; //Built again in place at every rebuild
+  private int segmentSize; //Bytes coded with one table before the next is built
+  private int interval; //Size of the current segment, doubles from FIRST_SEGMENT_SIZE up to segmentSize
+  private int untilRebuild;
+  private CodeTable table;
+  private DecodeTable decodeTable;
+  private boolean decoding;
+
+  /**
+   * AdaptiveModel
+   * Constructor that starts with every byte equally likely, so every code is 8 bits long
+   * @param segmentSize, the number of bytes coded with one table before the next is built
+   * @param decoding, true if the model is used to decode, so decode tables are built too
+   */
+  AdaptiveModel(int segmentSize, boolean decoding){
+    this.counts = new long[256];
+    Arrays.fill(counts, 1);
+    this.segmentSize = segmentSize;
+    this.interval = Math.min(FIRST_SEGMENT_SIZE, segmentSize);
+    this.untilRebuild = interval;
+    this.decoding = decoding;
+    this.huffTree = new HuffmanTree();
+    rebuild();
+  }
+
+  /**
+   * getTable
+   * Gets the code table for the current segment
+   * @return table, the code table
+   */
+  public CodeTable getTable(){
+    return table;
+  }
+
+  /**
+   * getDecodeTable
+   * Gets the decode table for the current segment
+   * @return decodeTable, the lookup tables of the code table
+   */
+  public DecodeTable getDecodeTable(){
+    return decodeTable;
+  }
+
+  /**
+   * remaining
+   * Gets the number of bytes left in the current segment, a range passed to update must not be longer
+   * @return untilRebuild, the bytes left before the codes change
+   */
+  public int remaining(){
+    return untilRebuild;
+  }
+
+  /**
+   * update
+   * Counts bytes that were just coded and builds new codes when the segment is full. The first segments
+   * are short so the flat starting codes are soon replaced
+   * @param data, the array holding the bytes
+   * @param start, the index of the first byte
+   * @param end, the index after the last byte
+   */
+  public void update(byte[] data, int start, int end){
+    for (int i = start; i < end; i++){
+      counts[data[i] & 0xFF]++;
+    }
+    untilRebuild -= end - start;
+    if (untilRebuild == 0){
+      rebuild();
+      if (interval == segmentSize){
+        for (int i = 0; i < 256; i++){ //Halve the counts so newer data matters more than old data
+          counts[i] = Math.max(1, counts[i] >>> 1);
+        }
+      }
+      interval = (int)Math.min(2L * interval, segmentSize);
+      untilRebuild = interval;
+    }
+  }
+
+  /**
+   * rebuild
+   * Builds the codes from the counts with the same stages as Compression uses for a whole file
+   */
+  private void rebuild(){
+    Compression<String> compression = new Compression<String>();
+    huffTree.build(counts);
+    table = compression.makeCodeTable(huffTree, counts, Compression.MAX_CODE_LENGTH);
+    if (decoding){
+      decodeTable = new DecodeTable(table);
+    }
+  }
+}//end of AdaptiveModel class
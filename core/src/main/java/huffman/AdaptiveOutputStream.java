@@ -0,0 +1,152 @@
+/* AdaptiveOutputStream.java
+ * Purpose: Compresses a stream of any length in one pass, the codes are rebuilt from the data already written
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.OutputStream;
+import java.io.IOException;
+
+public class AdaptiveOutputStream extends OutputStream{
+  //Variables
+  static final int CHUNK_SIZE = 1 << 16; //Most bytes coded after one count
+  static final long FLUSH_MARKER = 0; //Count that means the next chunk starts on a whole byte
+  static final long END_MARKER = 0xFFFFFFFFL; //Count that means there is no more data
+  private OutputStream out;
+  private BitOutputStream bits;
+  private AdaptiveModel model;
+  private Compression<String> compression;
+  private byte[] pending; //Bytes waiting to be coded as one chunk
+  private int length;
+  private boolean finished;
+
+  /**
+   * AdaptiveOutputStream
+   * Constructor that writes the MZIP header and codes with the default segment size
+   * @param out, the stream the MZIP data is written to
+   * @param name, the file name and extension stored in the header, e.g log.txt
+   */
+  public AdaptiveOutputStream(OutputStream out, String name) throws IOException{
+    this(out, name, AdaptiveModel.DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * AdaptiveOutputStream
+   * Constructor that writes the MZIP header. Smaller segments follow changes in the data sooner but rebuild the codes more often
+   * @param out, the stream the MZIP data is written to
+   * @param name, the file name and extension stored in the header, e.g log.txt
+   * @param segmentSize, the number of bytes coded with one table before the next is built
+   */
+  public AdaptiveOutputStream(OutputStream out, String name, int segmentSize) throws IOException{
+    if (segmentSize <= 0){
+      throw new IllegalArgumentException("The segment size must be positive");
+    }
+    this.out = out;
+    this.compression = new Compression<String>();
+    String[] parts = Compression.splitName(name);
+    compression.writeHeader(out, parts[0], parts[1], "A", "A" + segmentSize);
+    this.bits = new BitOutputStream(out);
+    this.model = new AdaptiveModel(segmentSize, false);
+    this.pending = new byte[Math.min(segmentSize, CHUNK_SIZE)];
+    this.length = 0;
+    this.finished = false;
+  }
+
+  /**
+   * write
+   * Adds one byte to the data
+   * @param b, the byte in the lowest 8 bits
+   */
+  @Override
+  public void write(int b) throws IOException{
+    if (finished){
+      throw new IOException("The stream is already finished");
+    }
+    pending[length++] = (byte)b;
+    if ((length == pending.length) || (length == model.remaining())){
+      writeChunk();
+    }
+  }
+
+  /**
+   * write
+   * Adds a range of bytes to the data
+   * @param b, the array holding the bytes
+   * @param off, the index of the first byte
+   * @param len, the number of bytes
+   */
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException{
+    if (finished){
+      throw new IOException("The stream is already finished");
+    }
+    while (len > 0){
+      int count = Math.min(len, Math.min(pending.length, model.remaining()) - length);
+      System.arraycopy(b, off, pending, length, count);
+      length += count;
+      off += count;
+      len -= count;
+      if ((length == pending.length) || (length == model.remaining())){
+        writeChunk();
+      }
+    }
+  }
+
+  /**
+   * flush
+   * Codes every byte written so far and sends it on, so a reader can decode it without waiting for more data
+   */
+  @Override
+  public void flush() throws IOException{
+    if (finished){
+      return;
+    }
+    writeChunk();
+    bits.writeBits(FLUSH_MARKER, 32);
+    bits.flush();
+  }
+
+  /**
+   * finish
+   * Writes the end of the data without closing the stream underneath
+   */
+  public void finish() throws IOException{
+    if (finished){
+      return;
+    }
+    writeChunk();
+    bits.writeBits(END_MARKER, 32);
+    bits.flush();
+    finished = true;
+  }
+
+  /**
+   * close
+   * Writes the end of the data and closes the stream underneath
+   */
+  @Override
+  public void close() throws IOException{
+    try{
+      finish();
+    } finally{
+      out.close();
+    }
+  }
+
+  /**
+   * writeChunk
+   * Codes the waiting bytes with the current table, after their count, then lets the model see them
+   */
+  private void writeChunk() throws IOException{
+    if (length == 0){
+      return;
+    }
+    bits.writeBits(length, 32);
+    compression.encode(model.getTable(), pending, 0, length, bits);
+    model.update(pending, 0, length);
+    length = 0;
+  }
+}//end of AdaptiveOutputStream class
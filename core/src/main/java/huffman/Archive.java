@@ -0,0 +1,449 @@
+/* Archive.java
+ * Purpose: Packs many files into one MZAR archive of MZIP entries, with a central directory at the end so one entry can be found without reading the others
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+public class Archive{
+  //Variables
+  static final String MAGIC = "MZAR"; //First line of an archive
+  static final int FOOTER_SIZE = 16; //Entry count, directory offset, and the marker
+  static final int MARKER = 0x4D5A4152; //"MZAR", last four bytes of an archive
+
+  public static void main(String[] args){
+    System.exit(run(args));
+  }
+
+  /**
+   * run
+   * Runs an archive command: c archive.MZAR [-d dictionary] file-or-directory..., l archive.MZAR,
+   * or x archive.MZAR [-o directory] [-d dictionary]... [entry...]
+   * @param args, the command line
+   * @return status, 0 if it worked, 1 if it failed, 2 if the command line was wrong
+   */
+  static int run(String[] args){
+    if ((args.length < 2) || !(args[0].equals("c") || args[0].equals("l") || args[0].equals("x"))){
+      System.err.println("Usage: Archive c archive.MZAR [-d dictionary] file-or-directory...");
+      System.err.println("       Archive l archive.MZAR");
+      System.err.println("       Archive x archive.MZAR [-o directory] [-d dictionary]... [entry...]");
+      return 2;
+    }
+    Path archive = Path.of(args[1]);
+    Path directory = Path.of("");
+    Dictionary dictionary = null;
+    List<String> names = new ArrayList<String>();
+    try{
+      for (int i = 2; i < args.length; i++){
+        if (args[i].equals("-o") && (i + 1 < args.length)){
+          directory = Path.of(args[++i]);
+        } else if (args[i].equals("-d") && (i + 1 < args.length)){
+          dictionary = Dictionary.load(Path.of(args[++i]));
+        } else {
+          names.add(args[i]);
+        }
+      }
+      if (args[0].equals("c")){
+        List<Path> files = new ArrayList<Path>();
+        for (String name : names){
+          files.add(Path.of(name));
+        }
+        create(archive, files, dictionary);
+      } else if (args[0].equals("l")){
+        for (Entry entry : list(archive)){
+          System.out.println(String.format("%12d %12d %08x %s", entry.getSize(), entry.getLength(), entry.getChecksum(), entry.getName()));
+        }
+      } else if (names.isEmpty()){
+        extractAll(archive, directory);
+      } else {
+        for (String name : names){
+          extract(archive, name, directory.resolve(name));
+        }
+      }
+      return 0;
+    } catch (IOException e){
+      System.err.println(archive + ": " + e.getMessage());
+      return 1;
+    }
+  }
+
+  /**
+   * create
+   * Compresses files into a new archive. Each file is a whole MZIP entry with its own code table, or the table
+   * of a dictionary. Directories are added with everything in them, and entries are named by their path from
+   * the parent of what was named, with / between directories
+   * @param archive, the archive to write
+   * @param files, the files and directories to add
+   * @param dictionary, the dictionary every entry is compressed with, or null for a table per entry
+   */
+  public static void create(Path archive, List<Path> files, Dictionary dictionary) throws IOException{
+    List<Path> sources = new ArrayList<Path>();
+    List<String> names = new ArrayList<String>();
+    for (Path file : files){
+      Path base = file.toAbsolutePath().normalize().getParent();
+      if (Files.isDirectory(file)){
+        try (Stream<Path> walk = Files.walk(file)){
+          for (Path path : walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList())){
+            sources.add(path);
+            names.add(entryName(base, path));
+          }
+        }
+      } else if (Files.isRegularFile(file)){
+        sources.add(file);
+        names.add(entryName(base, file));
+      } else {
+        throw new FileNotFoundException(file + " (No such file)");
+      }
+    }
+
+    FileChannel channel = FileChannel.open(archive, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    boolean done = false;
+    try{
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), Compression.BUFFER_SIZE));
+      out.writeBytes(MAGIC + "\r\n");
+      out.flush();
+      List<Entry> entries = new ArrayList<Entry>();
+      for (int i = 0; i < sources.size(); i++){
+        long offset = channel.position();
+        CheckedInputStream in = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(sources.get(i))), new CRC32());
+        long size;
+        try{
+          Compression.compress(in, out, sources.get(i).getFileName().toString(), dictionary);
+          size = Files.size(sources.get(i));
+        } finally{
+          in.close();
+        }
+        entries.add(new Entry(names.get(i), offset, channel.position() - offset, size, (int)in.getChecksum().getValue()));
+      }
+
+      //Central directory, then the footer
+      long directoryOffset = channel.position();
+      for (Entry entry : entries){
+        out.writeUTF(entry.getName());
+        out.writeLong(entry.getOffset());
+        out.writeLong(entry.getLength());
+        out.writeLong(entry.getSize());
+        out.writeInt(entry.getChecksum());
+      }
+      out.writeInt(entries.size());
+      out.writeLong(directoryOffset);
+      out.writeInt(MARKER);
+      out.flush();
+      done = true;
+    } finally{
+      channel.close();
+      if (!done){ //Do not leave half an archive behind
+        Files.deleteIfExists(archive);
+      }
+    }
+  }
+
+  /**
+   * entryName
+   * Names an entry by its path from a base directory
+   * @param base, the directory the name starts from
+   * @param file, the file
+   * @return name, the path with / between directories
+   */
+  private static String entryName(Path base, Path file){
+    Path relative = (base == null) ? file.getFileName() : base.relativize(file.toAbsolutePath().normalize());
+    return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+  }
+
+  /**
+   * list
+   * Reads the central directory, with one seek to the footer and one to the directory
+   * @param archive, the archive
+   * @return entries, every entry in the order they were added
+   */
+  public static List<Entry> list(Path archive) throws IOException{
+    FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+    try{
+      return readDirectory(channel);
+    } finally{
+      channel.close();
+    }
+  }
+
+  /**
+   * extract
+   * Decompresses one entry, found through the central directory, and checks its checksum
+   * @param archive, the archive
+   * @param name, the name of the entry, as shown by list
+   * @param target, the file the entry is written to
+   */
+  public static void extract(Path archive, String name, Path target) throws IOException{
+    FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+    try{
+      for (Entry entry : readDirectory(channel)){
+        if (entry.getName().equals(name)){
+          extract(channel, entry, target);
+          return;
+        }
+      }
+      throw new FileNotFoundException(name + " is not in " + archive);
+    } finally{
+      channel.close();
+    }
+  }
+
+  /**
+   * extractAll
+   * Decompresses every entry into a directory, keeping the directories in their names
+   * @param archive, the archive
+   * @param directory, the directory the entries are written under
+   */
+  public static void extractAll(Path archive, Path directory) throws IOException{
+    FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ);
+    try{
+      for (Entry entry : readDirectory(channel)){
+        extract(channel, entry, directory.resolve(entry.getName()));
+      }
+    } finally{
+      channel.close();
+    }
+  }
+
+  /**
+   * extract
+   * Decompresses an entry into a file, deleting the file if the data or its checksum is wrong
+   * @param channel, the channel of the archive
+   * @param entry, the entry
+   * @param target, the file the entry is written to
+   */
+  private static void extract(FileChannel channel, Entry entry, Path target) throws IOException{
+    Path parent = target.toAbsolutePath().getParent();
+    if (parent != null){
+      Files.createDirectories(parent);
+    }
+    CheckedOutputStream out = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(target), Compression.BUFFER_SIZE), new CRC32());
+    boolean done = false;
+    try{
+      Decompression.decompress(new BufferedInputStream(new RangeInputStream(channel, entry.getOffset(), entry.getLength()), Compression.BUFFER_SIZE), out);
+      if ((int)out.getChecksum().getValue() != entry.getChecksum()){
+        throw new IOException(entry.getName() + " does not match its checksum");
+      }
+      done = true;
+    } finally{
+      out.close();
+      if (!done){
+        Files.deleteIfExists(target);
+      }
+    }
+  }
+
+  /**
+   * readDirectory
+   * Reads the footer, then the central directory it points to
+   * @param channel, the channel of the archive
+   * @return entries, every entry in the order they were added
+   */
+  private static List<Entry> readDirectory(FileChannel channel) throws IOException{
+    long length = channel.size();
+    if (length < MAGIC.length() + 2 + FOOTER_SIZE){
+      throw new IOException("The file is not an MZAR archive");
+    }
+    ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+    readFully(channel, footer, length - FOOTER_SIZE);
+    int count = footer.getInt(0);
+    long directoryOffset = footer.getLong(4);
+    if ((footer.getInt(12) != MARKER) || (count < 0) || (directoryOffset < 0) || (directoryOffset > length - FOOTER_SIZE)){
+      throw new IOException("The file is not an MZAR archive");
+    }
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new RangeInputStream(channel, directoryOffset, length - FOOTER_SIZE - directoryOffset)));
+    List<Entry> entries = new ArrayList<Entry>();
+    for (int i = 0; i < count; i++){
+      String name = in.readUTF();
+      Entry entry = new Entry(name, in.readLong(), in.readLong(), in.readLong(), in.readInt());
+      if (!safeName(name) || (entry.getOffset() < 0) || (entry.getLength() < 0) || (entry.getOffset() + entry.getLength() > directoryOffset)){
+        throw new IOException("The central directory of the archive is not valid");
+      }
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  /**
+   * safeName
+   * Checks that an entry name stays inside the directory it is extracted to
+   * @param name, the entry name
+   * @return safe, false if the name is empty, absolute, or goes up a directory
+   */
+  private static boolean safeName(String name){
+    if (name.isEmpty() || name.startsWith("/") || name.contains("\\") || name.contains(":")){
+      return false;
+    }
+    for (String part : name.split("/")){
+      if (part.isEmpty() || part.equals("..")){
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * readFully
+   * Fills a buffer with positional reads
+   * @param channel, the channel of the archive
+   * @param buffer, the buffer to fill
+   * @param position, where the bytes start in the archive
+   */
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException{
+    while (buffer.hasRemaining()){
+      if (channel.read(buffer, position + buffer.position()) < 0){
+        throw new IOException("The archive is cut off");
+      }
+    }
+  }
+
+  /* Entry
+   * One file in the archive, as recorded in the central directory
+   */
+  public static class Entry{
+    private String name;
+    private long offset;
+    private long length;
+    private long size;
+    private int checksum;
+
+    /**
+     * Entry
+     * Constructor that records where an entry is and what it holds
+     * @param name, the path of the file inside the archive
+     * @param offset, where its MZIP data starts in the archive
+     * @param length, the number of bytes of MZIP data
+     * @param size, the number of bytes of the original file
+     * @param checksum, the CRC-32 of the original file
+     */
+    Entry(String name, long offset, long length, long size, int checksum){
+      this.name = name;
+      this.offset = offset;
+      this.length = length;
+      this.size = size;
+      this.checksum = checksum;
+    }
+
+    /**
+     * getName
+     * Gets the path of the file inside the archive
+     * @return name, the path with / between directories
+     */
+    public String getName(){
+      return name;
+    }
+
+    /**
+     * getOffset
+     * Gets where the MZIP data of the entry starts in the archive
+     * @return offset, the position of its first byte
+     */
+    public long getOffset(){
+      return offset;
+    }
+
+    /**
+     * getLength
+     * Gets the number of bytes of MZIP data
+     * @return length, the compressed size
+     */
+    public long getLength(){
+      return length;
+    }
+
+    /**
+     * getSize
+     * Gets the number of bytes of the original file
+     * @return size, the original size
+     */
+    public long getSize(){
+      return size;
+    }
+
+    /**
+     * getChecksum
+     * Gets the CRC-32 of the original file
+     * @return checksum, the CRC-32
+     */
+    public int getChecksum(){
+      return checksum;
+    }
+  }
+
+  /* RangeInputStream
+   * Reads part of a file with positional reads, so the data after it is never read by mistake
+   */
+  private static class RangeInputStream extends InputStream{
+    private FileChannel channel;
+    private long position;
+    private long end;
+
+    /**
+     * RangeInputStream
+     * Constructor that reads from start up to start + length
+     * @param channel, the channel of the file
+     * @param start, where the part starts in the file
+     * @param length, the number of bytes in the part
+     */
+    RangeInputStream(FileChannel channel, long start, long length){
+      this.channel = channel;
+      this.position = start;
+      this.end = start + length;
+    }
+
+    /**
+     * read
+     * Reads one byte of the part
+     * @return b, the byte from 0 to 255, or -1 at the end of the part
+     */
+    @Override
+    public int read() throws IOException{
+      byte[] one = new byte[1];
+      return (read(one, 0, 1) == 1) ? (one[0] & 0xFF) : -1;
+    }
+
+    /**
+     * read
+     * Reads bytes of the part with one positional read
+     * @param b, the array the bytes are put in
+     * @param off, the index of the first byte to fill
+     * @param len, the most bytes to read
+     * @return count, the number of bytes read, or -1 at the end of the part
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException{
+      if (position >= end){
+        return -1;
+      }
+      int count = channel.read(ByteBuffer.wrap(b, off, (int)Math.min(len, end - position)), position);
+      if (count < 0){
+        throw new IOException("The archive is cut off");
+      }
+      position += count;
+      return count;
+    }
+  }
+}//end of Archive class
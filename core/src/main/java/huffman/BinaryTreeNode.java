@@ -4,12 +4,14 @@
  * Date: 2019-04-1
  */
 
+package huffman;
+
 class BinaryTreeNode<E>{
   //Variables
   private E item;
   private BinaryTreeNode<E> left;
   private BinaryTreeNode<E> right;
-  private int priority;
+  private long priority;
   
   /** 
    * BinaryTreeNode
@@ -51,7 +53,7 @@ class BinaryTreeNode<E>{
    * @param item, a generic item the node will store 
    * @param priority, the priority of the item
    */    
-  public BinaryTreeNode(E item, int priority){
+  public BinaryTreeNode(E item, long priority){
     this.item = item;
     this.left = null;
     this.right = null;
@@ -113,18 +115,18 @@ class BinaryTreeNode<E>{
   /** 
    * setPriority
    * Sets the priority of the node
-   * @param priority, an integer representing the object's priority
+   * @param priority, a number representing the object's priority
    */
-  public void setPriority(int priority){
+  public void setPriority(long priority){
     this.priority = priority;
   }
   
   /** 
    * getPriority
    * Gets the priority of the node
-   * @return priority, the integer priority of the node
+   * @return priority, the priority of the node
    */
-  public int getPriority(){
+  public long getPriority(){
     return priority;
   }
   
@@ -0,0 +1,149 @@
+/* BitInputStream.java
+ * Purpose: Reads packed bits out of an input stream so codes can be looked up several bits at a time
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.InputStream;
+import java.io.IOException;
+
+class BitInputStream{
+  //Variables
+  private InputStream in;
+  private byte[] buffer; //Bytes read from the stream that are not in the accumulator yet
+  private int position;
+  private int limit;
+  private long bitBuffer; //Bits waiting to be used, kept in the lowest bitCount bits
+  private int bitCount;
+  private long bitsRead;
+  private long bytesRead; //Bytes of the stream moved into the accumulator, not counting padding
+  private boolean ended; //True once the stream has run out and 0s are being added
+
+  /**
+   * BitInputStream
+   * Constructor that makes a bit reader on top of an input stream
+   * @param in, the stream the packed bytes are read from
+   */
+  BitInputStream(InputStream in){
+    this.in = in;
+    this.buffer = new byte[1 << 16];
+    this.position = 0;
+    this.limit = 0;
+    this.bitBuffer = 0;
+    this.bitCount = 0;
+    this.bitsRead = 0;
+    this.bytesRead = 0;
+    this.ended = false;
+  }
+
+  /**
+   * peekBits
+   * Looks at the next bits without using them up, bits past the end of the stream are 0s
+   * @param length, the number of bits to look at, from 1 to 32
+   * @return bits, the next bits right aligned
+   */
+  public int peekBits(int length) throws IOException{
+    if (bitCount < length){
+      refill(length);
+    }
+    return (int)((bitBuffer >>> (bitCount - length)) & ((1L << length) - 1));
+  }
+
+  /**
+   * skipBits
+   * Uses up bits that were looked at with peekBits
+   * @param length, the number of bits to use up
+   */
+  public void skipBits(int length){
+    bitCount -= length;
+    bitsRead += length;
+  }
+
+  /**
+   * readBits
+   * Reads the next bits and uses them up
+   * @param length, the number of bits to read, from 1 to 32
+   * @return bits, the bits read right aligned
+   */
+  public int readBits(int length) throws IOException{
+    int bits = peekBits(length);
+    skipBits(length);
+    return bits;
+  }
+
+  /**
+   * getBitsRead
+   * Gets the number of bits used up so far
+   * @return bitsRead, the number of bits used up
+   */
+  public long getBitsRead(){
+    return bitsRead;
+  }
+
+  /**
+   * remainingBits
+   * Finds how many bits are left before the padding at the end of the stream
+   * @param extraBits, the number of 0s added to the end of the data to make a whole byte
+   * @return remaining, the number of bits left, or Long.MAX_VALUE if the end of the stream is not in sight yet
+   */
+  public long remainingBits(int extraBits) throws IOException{
+    if (!ended && (bitCount <= 56)){
+      refill(57);
+    }
+    if (!ended){ //At least 57 bits of data are waiting, so another code starts before the end
+      return Long.MAX_VALUE;
+    }
+    return bytesRead * 8 - extraBits - bitsRead;
+  }
+
+  /**
+   * alignToByte
+   * Skips the 0s that pad the bits used so far to a whole byte
+   */
+  public void alignToByte() throws IOException{
+    int skip = (int)((8 - (bitsRead & 7)) & 7);
+    if (skip > 0){
+      readBits(skip);
+    }
+  }
+
+  /**
+   * isPastEnd
+   * Checks if any of the bits used so far were padding added after the end of the stream
+   * @return pastEnd, true if more bits were used than the stream had
+   */
+  public boolean isPastEnd(){
+    return ended && (bitsRead > bytesRead * 8);
+  }
+
+  /**
+   * refill
+   * Tops the accumulator up to 57 bits from the bytes already read, and only waits on the stream for the bits
+   * that are needed, so a live stream can be decoded up to its last byte. 0s are added once the stream has ended
+   * @param needed, the fewest bits the accumulator must hold afterwards
+   */
+  private void refill(int needed) throws IOException{
+    while (bitCount <= 56){
+      if (position == limit){
+        if (bitCount >= needed){ //Enough bits, do not wait for more of the stream
+          return;
+        }
+        limit = in.read(buffer, 0, buffer.length);
+        position = 0;
+        if (limit <= 0){ //End of the stream, pad with 0s
+          limit = 0;
+          ended = true;
+          bitBuffer <<= 8;
+          bitCount += 8;
+          continue;
+        }
+      }
+      bitBuffer = (bitBuffer << 8) | (buffer[position++] & 0xFF);
+      bitCount += 8;
+      bytesRead++;
+    }
+  }
+}//end of BitInputStream class
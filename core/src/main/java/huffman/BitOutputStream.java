@@ -0,0 +1,87 @@
+/* BitOutputStream.java
+ * Purpose: Writes codes of any number of bits into an output stream as packed bytes
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.OutputStream;
+import java.io.IOException;
+
+class BitOutputStream{
+  //Variables
+  private OutputStream out;
+  private byte[] buffer; //Whole bytes waiting to be written to the stream
+  private int position;
+  private long bitBuffer; //Bits that have not made a whole byte yet, kept in the lowest bitCount bits
+  private int bitCount;
+  private long bitsWritten;
+
+  /**
+   * BitOutputStream
+   * Constructor that makes a bit writer on top of an output stream
+   * @param out, the stream the packed bytes are written to
+   */
+  BitOutputStream(OutputStream out){
+    this.out = out;
+    this.buffer = new byte[1 << 16];
+    this.position = 0;
+    this.bitBuffer = 0;
+    this.bitCount = 0;
+    this.bitsWritten = 0;
+  }
+
+  /**
+   * writeBits
+   * Adds a code to the end of the bit stream, highest bit first
+   * @param code, the bits of the code right aligned, with nothing above the length
+   * @param length, the number of bits in the code, from 0 to 64
+   */
+  public void writeBits(long code, int length) throws IOException{
+    if (length > 56){ //Split so that the accumulator never holds more than 63 bits
+      writeBits(code >>> 32, length - 32);
+      writeBits(code & 0xFFFFFFFFL, 32);
+      return;
+    }
+    bitBuffer = (bitBuffer << length) | code;
+    bitCount += length;
+    bitsWritten += length;
+    while (bitCount >= 8){ //Move every whole byte out of the accumulator
+      bitCount -= 8;
+      buffer[position++] = (byte)(bitBuffer >>> bitCount);
+      if (position == buffer.length){
+        out.write(buffer, 0, position);
+        position = 0;
+      }
+    }
+  }
+
+  /**
+   * getBitsWritten
+   * Gets the number of bits written so far, not counting padding
+   * @return bitsWritten, the number of bits written
+   */
+  public long getBitsWritten(){
+    return bitsWritten;
+  }
+
+  /**
+   * flush
+   * Pads the last byte with 0s and writes everything to the stream
+   * @return extra, the number of 0s that were added to make a whole byte
+   */
+  public int flush() throws IOException{
+    int extra = 0;
+    if (bitCount > 0){
+      extra = 8 - bitCount;
+      buffer[position++] = (byte)(bitBuffer << extra);
+      bitCount = 0;
+    }
+    out.write(buffer, 0, position);
+    position = 0;
+    out.flush();
+    return extra;
+  }
+}//end of BitOutputStream class
@@ -0,0 +1,453 @@
+/* BlockCompression.java
+ * Purpose: Compresses a file in independent blocks that are counted and encoded on all cores at once
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.RandomAccessFile;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+class BlockCompression{
+  //Variables
+  static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+  static final long DEFAULT_SAMPLE_SIZE = 1 << 22; //Bytes read to estimate the counts of a big file
+  private static final int SAMPLE_WINDOW = 1 << 16; //Bytes read in one place, spread evenly over the file
+  static final int MAX_STREAMS = 16;
+  private ForkJoinPool pool;
+  private int blockSize;
+  private int streams; //1 for one stream per block
+
+  /**
+   * BlockCompression
+   * Constructor that sets up block mode
+   * @param pool, the threads the blocks are counted and encoded on
+   * @param blockSize, the number of bytes of the original file in each block
+   */
+  BlockCompression(ForkJoinPool pool, int blockSize){
+    this(pool, blockSize, 1);
+  }
+
+  /**
+   * BlockCompression
+   * Constructor that sets up block mode with every block coded into several interleaved streams
+   * @param pool, the threads the blocks are counted and encoded on
+   * @param blockSize, the number of bytes of the original file in each block
+   * @param streams, the number of streams in each block, from 1 to MAX_STREAMS
+   */
+  BlockCompression(ForkJoinPool pool, int blockSize, int streams){
+    if ((streams < 1) || (streams > MAX_STREAMS)){
+      throw new IllegalArgumentException("The number of streams must be from 1 to " + MAX_STREAMS);
+    }
+    this.pool = pool;
+    this.blockSize = blockSize;
+    this.streams = streams;
+  }
+
+  /**
+   * makeFrequencyArray
+   * Counts every block at the same time and adds the counts together
+   * @param fileName, the name of the file to compress
+   * @return frequency, a long array with frequency values of the different characters
+   */
+  long[] makeFrequencyArray(String fileName) throws IOException{
+    RandomAccessFile file = new RandomAccessFile(fileName, "r");
+    try{
+      FileChannel channel = file.getChannel();
+      return pool.invoke(new CountTask(channel, 0, channel.size())).getFrequency();
+    } catch (UncheckedIOException e){ //Tasks cannot throw IOException themselves
+      throw e.getCause();
+    } finally{
+      file.close();
+    }
+  }
+
+  /**
+   * sampleFrequencyArray
+   * Estimates the counts of a big file from windows spread evenly through it, so the file is only read in full
+   * once, to encode it. Every byte gets a count of at least 1, so bytes the sample missed still have a code.
+   * The block index records the padding of every block, so the counts do not have to be exact
+   * @param fileName, the name of the file to compress
+   * @param sampleSize, about how many bytes to read, files up to twice this size are counted in full
+   * @return frequency, a long array with the estimated frequency of the different characters
+   */
+  long[] sampleFrequencyArray(String fileName, long sampleSize) throws IOException{
+    RandomAccessFile file = new RandomAccessFile(fileName, "r");
+    try{
+      FileChannel channel = file.getChannel();
+      long size = channel.size();
+      if (size <= 2 * sampleSize){ //Not much to save, count it all
+        return makeFrequencyArray(fileName);
+      }
+      long windows = Math.max(1, sampleSize / SAMPLE_WINDOW);
+      long stride = size / windows;
+      Histogram histogram = new Histogram();
+      byte[] data = new byte[SAMPLE_WINDOW];
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+      long sampled = 0;
+      for (long i = 0; i < windows; i++){
+        long start = i * stride + (stride - SAMPLE_WINDOW) / 2; //Middle of each stride
+        buffer.clear();
+        while (buffer.hasRemaining() && (channel.read(buffer, start + buffer.position()) > 0)){
+        }
+        histogram.add(data, 0, buffer.position());
+        sampled += buffer.position();
+      }
+      long[] frequency = histogram.getFrequency();
+      double scale = (double)size / Math.max(1, sampled);
+      for (int i = 0; i < 256; i++){
+        frequency[i] = Math.round(frequency[i] * scale) + 1;
+      }
+      return frequency;
+    } finally{
+      file.close();
+    }
+  }
+
+  /**
+   * outToFile
+   * Makes a block mode MZIP file next to the original file
+   * @param file, the original file name of what was to be compressed
+   * @param fileExtension, the file extension of the original file
+   * @param tree, the code lengths or huffman tree for the header
+   * @param table, the code table made from the huffman tree
+   */
+  void outToFile(String file, String fileExtension, String tree, CodeTable table) throws IOException{
+    OutputStream stream = new FileOutputStream(file + ".MZIP");
+    try{
+      writeMzip(file + fileExtension, file, fileExtension, tree, table, stream);
+    } finally{
+      stream.close();
+    }
+  }
+
+  /**
+   * writeMzip
+   * Writes a block mode MZIP file to a stream, the blocks are encoded a batch at a time and written in order
+   * @param fileName, the name of the file to encode
+   * @param file, the file name stored in the header
+   * @param fileExtension, the file extension stored in the header
+   * @param tree, the code lengths or huffman tree for the header
+   * @param table, the code table made from the huffman tree
+   * @param out, the stream the MZIP data is written to
+   */
+  void writeMzip(String fileName, String file, String fileExtension, String tree, CodeTable table, OutputStream out) throws IOException{
+    RandomAccessFile in = new RandomAccessFile(fileName, "r");
+    DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+
+    try{
+      //Third line marks block mode instead of holding the extra bits, every block has its own
+      new Compression<String>().writeHeader(stream, file, fileExtension, tree, "B" + blockSize);
+      if (tree.length() > 0){ //If file has data, write the blocks
+        BlockIndex index = new BlockIndex(stream.size());
+        FileChannel channel = in.getChannel();
+        writeBlocks(channel, 0, channel.size(), table, false, index, stream);
+        index.write(stream);
+      }
+      stream.flush();
+    } catch (UncheckedIOException e){ //Tasks cannot throw IOException themselves
+      throw e.getCause();
+    } finally{
+      in.close();
+    }
+  }
+
+  /**
+   * appendMzip
+   * Adds the bytes a file has grown by to the end of a block mode MZIP file made from it. A last block shorter than
+   * the block size is encoded again with the new bytes after it, then the new blocks, index and footer are written
+   * over the old index. Only the new bytes and that one block are read, however big the file already is. A block
+   * whose counts have moved away from the table in the header gets its own code lengths. The tail that is written
+   * over, the short last block, the index and the footer, is kept and written back if anything fails
+   * @param mzip, the MZIP file, open for reading and writing
+   * @param index, the block index read from the MZIP file
+   * @param table, the code table in the header
+   * @param fileName, the name of the file the MZIP file was made from, which must only have had bytes added to its end
+   * @return length, the number of bytes of the file that were encoded
+   */
+  long appendMzip(RandomAccessFile mzip, BlockIndex index, CodeTable table, String fileName) throws IOException{
+    RandomAccessFile in = new RandomAccessFile(fileName, "r");
+    try{
+      FileChannel channel = in.getChannel();
+      long size = channel.size();
+      long start = index.getOriginalSize();
+      if (size < start){
+        throw new IOException(fileName + " is shorter than the data already in the MZIP file");
+      }
+      if (size == start){ //Nothing new
+        return 0;
+      }
+      int last = index.size() - 1;
+      if ((last >= 0) && (index.getOriginalLength(last) < blockSize)){ //Fill up the last block
+        start = index.getOriginalOffset(last);
+        index.removeLast();
+      }
+      FileChannel out = mzip.getChannel();
+      long tailStart = index.getEnd();
+      byte[] tail = readBlock(out, tailStart, (int)(out.size() - tailStart)); //What gets written over
+      try{
+        out.position(tailStart);
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16));
+        writeBlocks(channel, start, size, table, true, index, stream);
+        index.write(stream);
+        stream.flush();
+        out.truncate(out.position()); //The new index can end before the old one did
+      } catch (Throwable e){ //Put the old tail back, so the MZIP file is as it was
+        try{
+          out.truncate(tailStart + tail.length);
+          ByteBuffer buffer = ByteBuffer.wrap(tail);
+          while (buffer.hasRemaining()){
+            out.write(buffer, tailStart + buffer.position());
+          }
+        } catch (IOException restore){
+          e.addSuppressed(restore);
+        }
+        throw e;
+      }
+      return size - start;
+    } catch (UncheckedIOException e){ //Tasks cannot throw IOException themselves
+      throw e.getCause();
+    } finally{
+      in.close();
+    }
+  }
+
+  /**
+   * writeBlocks
+   * Encodes part of a file a batch of blocks at a time and writes the blocks in order, adding each to the index
+   * @param channel, the channel of the file to encode
+   * @param start, where the first block starts in the file
+   * @param end, where the last block ends in the file
+   * @param table, the code table in the header
+   * @param ownTables, true to give a block its own code lengths when they make it smaller than the header table does
+   * @param index, the index the blocks are added to
+   * @param stream, the stream of the MZIP file, positioned where the index says the next block starts
+   */
+  private void writeBlocks(FileChannel channel, long start, long end, CodeTable table, boolean ownTables, BlockIndex index,
+                           DataOutputStream stream) throws IOException{
+    int batch = pool.getParallelism() * 2; //Enough blocks to keep every thread busy without holding the whole file
+    EncodeTask[] tasks = new EncodeTask[batch];
+    for (long first = start; first < end; first += (long)batch * blockSize){
+      int count = 0;
+      for (long s = first; (s < end) && (count < batch); s += blockSize){
+        tasks[count] = new EncodeTask(channel, s, (int)Math.min(blockSize, end - s), table, streams, ownTables);
+        pool.execute(tasks[count]);
+        count++;
+      }
+      for (int i = 0; i < count; i++){
+        byte[] data = tasks[i].join();
+        stream.write(data);
+        index.add(tasks[i].getType(), tasks[i].getLength(), data.length, tasks[i].getExtraBits());
+        tasks[i] = null;
+      }
+    }
+  }
+
+  /**
+   * readBlock
+   * Reads part of a file into an array with positional reads, so many threads can share one channel
+   * @param channel, the channel of the file
+   * @param start, where the part starts in the file
+   * @param length, the number of bytes to read
+   * @return data, the bytes that were read
+   */
+  static byte[] readBlock(FileChannel channel, long start, int length) throws IOException{
+    byte[] data = new byte[length];
+    ByteBuffer buffer = ByteBuffer.wrap(data);
+    while (buffer.hasRemaining()){
+      if (channel.read(buffer, start + buffer.position()) < 0){
+        throw new IOException("The file changed while it was being read");
+      }
+    }
+    return data;
+  }
+
+  /**
+   * encodeInterleaved
+   * Codes a block into several streams, byte i going to stream i % streams, so a decoder can keep a bit buffer
+   * for each stream and decode them side by side. The block starts with a jump table: the number of streams,
+   * then the length of every stream but the last as a 4 byte int. Every stream is padded to a whole byte
+   * @param table, the code table made from the huffman tree
+   * @param data, the array holding the bytes of the block, from index 0
+   * @param length, the number of bytes in the block
+   * @param streams, the number of streams, from 1 to MAX_STREAMS
+   * @return encoded, the jump table and the streams one after another
+   */
+  static byte[] encodeInterleaved(CodeTable table, byte[] data, int length, int streams) throws IOException{
+    ByteArrayOutputStream[] encoded = new ByteArrayOutputStream[streams];
+    for (int s = 0; s < streams; s++){
+      encoded[s] = new ByteArrayOutputStream(length / streams / 2 + 16);
+      BitOutputStream bits = new BitOutputStream(encoded[s]);
+      for (int i = s; i < length; i += streams){
+        int item = data[i] & 0xFF;
+        bits.writeBits(table.getCode(item), table.getLength(item));
+      }
+      bits.flush();
+    }
+    ByteArrayOutputStream block = new ByteArrayOutputStream(1 + 4 * streams + length / 2);
+    DataOutputStream out = new DataOutputStream(block);
+    out.writeByte(streams);
+    for (int s = 0; s < streams - 1; s++){
+      out.writeInt(encoded[s].size());
+    }
+    for (int s = 0; s < streams; s++){
+      encoded[s].writeTo(out);
+    }
+    return block.toByteArray();
+  }
+
+  /* CountTask
+   * Counts a range of the file, splitting it in half until it is one block
+   */
+  private class CountTask extends RecursiveTask<Histogram>{
+    private FileChannel channel;
+    private long start;
+    private long end;
+
+    CountTask(FileChannel channel, long start, long end){
+      this.channel = channel;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected Histogram compute(){
+      if (end - start > blockSize){
+        long middle = start + Math.max(1, (end - start) / 2 / blockSize) * blockSize; //Split on a block boundary
+        CountTask right = new CountTask(channel, middle, end);
+        right.fork();
+        Histogram histogram = new CountTask(channel, start, middle).compute();
+        histogram.add(right.join());
+        return histogram;
+      }
+      Histogram histogram = new Histogram();
+      try{
+        byte[] data = readBlock(channel, start, (int)(end - start));
+        histogram.add(data, 0, data.length);
+      } catch (IOException e){
+        throw new UncheckedIOException(e);
+      }
+      return histogram;
+    }
+  }
+
+  /**
+   * codedBits
+   * Works out from the counts how many bits a table codes some data into
+   * @param frequency, the frequency of each character in the data
+   * @param table, the code table
+   * @return bits, the number of bits, or Long.MAX_VALUE if a byte in the data has no code in the table
+   */
+  static long codedBits(long[] frequency, CodeTable table){
+    long bits = 0;
+    for (int i = 0; i < 256; i++){
+      if (frequency[i] != 0){
+        if (table.getLength(i) == 0){
+          return Long.MAX_VALUE;
+        }
+        bits += frequency[i] * table.getLength(i);
+      }
+    }
+    return bits;
+  }
+
+  /* EncodeTask
+   * Encodes one block into its own array of packed bits. The block is counted first, and a block that is one byte
+   * repeated is stored as that byte, and a block the codes would not make smaller is stored as it is. When
+   * appending, a block that the header table does not fit gets a table of its own
+   */
+  private static class EncodeTask extends RecursiveTask<byte[]>{
+    private FileChannel channel;
+    private long start;
+    private int length;
+    private CodeTable table;
+    private int streams;
+    private boolean ownTables;
+    private int type;
+    private int extraBits;
+
+    EncodeTask(FileChannel channel, long start, int length, CodeTable table, int streams, boolean ownTables){
+      this.channel = channel;
+      this.start = start;
+      this.length = length;
+      this.table = table;
+      this.streams = streams;
+      this.ownTables = ownTables;
+    }
+
+    int getLength(){
+      return length;
+    }
+
+    int getType(){
+      return type;
+    }
+
+    int getExtraBits(){
+      return extraBits;
+    }
+
+    @Override
+    protected byte[] compute(){
+      try{
+        byte[] data = readBlock(channel, start, length);
+        Histogram histogram = new Histogram();
+        histogram.add(data, 0, length);
+        long[] frequency = histogram.getFrequency();
+        int repeated = Compression.repeatedByte(frequency);
+        if (repeated >= 0){
+          type = BlockIndex.RLE;
+          return new byte[] {(byte)repeated};
+        }
+        CodeTable codes = table;
+        byte[] lengths = null;
+        if (ownTables){ //The header table was made from older data, keep it only if a new one would not pay for itself
+          CodeTable own = new Compression<String>().makeCodeTable(new HuffmanTree().build(frequency), frequency, Compression.MAX_CODE_LENGTH);
+          byte[] packed = own.writeLengths();
+          long headerBits = codedBits(frequency, table);
+          if ((headerBits == Long.MAX_VALUE) || ((codedBits(frequency, own) + 7) / 8 + 1 + packed.length < (headerBits + 7) / 8)){
+            codes = own;
+            lengths = packed;
+          }
+        }
+        if (!Compression.isWorthCoding(frequency, codes, (lengths == null) ? 0 : 1 + lengths.length)){
+          type = BlockIndex.STORED;
+          return data;
+        }
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(length / 2 + 16);
+        if (lengths != null){ //One byte for the number of packed lengths less one, then the packed lengths
+          type = BlockIndex.TABLE;
+          encoded.write(lengths.length - 1);
+          encoded.write(lengths);
+        } else if (streams > 1){ //Every stream is padded on its own, so the index has no extra bits to record
+          type = BlockIndex.INTERLEAVED;
+          return encodeInterleaved(table, data, length, streams);
+        } else {
+          type = BlockIndex.HUFFMAN;
+        }
+        BitOutputStream bits = new BitOutputStream(encoded);
+        for (int i = 0; i < length; i++){
+          int item = data[i] & 0xFF;
+          bits.writeBits(codes.getCode(item), codes.getLength(item));
+        }
+        extraBits = bits.flush();
+        return encoded.toByteArray();
+      } catch (IOException e){
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}//end of BlockCompression class
@@ -0,0 +1,261 @@
+/* BlockIndex.java
+ * Purpose: The list of blocks at the end of a block mode MZIP file, so each block can be found and decoded on its own
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.DataOutputStream;
+import java.io.RandomAccessFile;
+import java.io.IOException;
+import java.util.Arrays;
+
+class BlockIndex{
+  //Variables
+  static final int HUFFMAN = 0; //Block type: encoded with the tree in the header
+  static final int STORED = 1; //Block type: the bytes as they are, the codes would not have made them smaller
+  static final int RLE = 2; //Block type: one byte repeated for the whole block, stored once
+  static final int INTERLEAVED = 3; //Block type: encoded with the tree in the header, into several streams that decode side by side
+  static final int TABLE = 4; //Block type: encoded with its own code lengths, which start the block, added when appending new data
+  static final int FOOTER_SIZE = 16; //Block count, index offset, and the marker
+  static final int MARKER = 0x4D5A4249; //"MZBI", last four bytes of a block mode file
+  private static final int ENTRY_SIZE = 10;
+  private int count;
+  private int[] types;
+  private int[] originalLengths;
+  private int[] compressedLengths;
+  private int[] extraBits;
+  private long[] offsets; //Where each block starts in the file, worked out from the lengths
+  private long[] originalOffsets; //Where each block starts in the original file, also worked out from the lengths
+  private long dataStart; //Where the first block starts
+
+  /**
+   * BlockIndex
+   * Constructor that makes an empty index
+   * @param dataStart, where the first block starts in the file
+   */
+  BlockIndex(long dataStart){
+    this.count = 0;
+    this.types = new int[16];
+    this.originalLengths = new int[16];
+    this.compressedLengths = new int[16];
+    this.extraBits = new int[16];
+    this.offsets = new long[16];
+    this.originalOffsets = new long[16];
+    this.dataStart = dataStart;
+  }
+
+  /**
+   * add
+   * Adds a block to the end of the index
+   * @param type, how the block is encoded
+   * @param originalLength, the number of bytes the block decodes to
+   * @param compressedLength, the number of bytes the block takes up in the file
+   * @param extra, the number of 0s added to the end of the block to make a whole byte
+   */
+  public void add(int type, int originalLength, int compressedLength, int extra){
+    if (count == types.length){
+      types = Arrays.copyOf(types, count * 2);
+      originalLengths = Arrays.copyOf(originalLengths, count * 2);
+      compressedLengths = Arrays.copyOf(compressedLengths, count * 2);
+      extraBits = Arrays.copyOf(extraBits, count * 2);
+      offsets = Arrays.copyOf(offsets, count * 2);
+      originalOffsets = Arrays.copyOf(originalOffsets, count * 2);
+    }
+    offsets[count] = (count == 0) ? dataStart : offsets[count - 1] + compressedLengths[count - 1];
+    originalOffsets[count] = (count == 0) ? 0 : originalOffsets[count - 1] + originalLengths[count - 1];
+    types[count] = type;
+    originalLengths[count] = originalLength;
+    compressedLengths[count] = compressedLength;
+    extraBits[count] = extra;
+    count++;
+  }
+
+  /**
+   * removeLast
+   * Takes the last block off the index, so it can be encoded again with more data after it
+   */
+  public void removeLast(){
+    if (count > 0){
+      count--;
+    }
+  }
+
+  /**
+   * size
+   * Gets the number of blocks
+   * @return count, the number of blocks
+   */
+  public int size(){
+    return count;
+  }
+
+  /**
+   * getType
+   * Gets how a block is encoded
+   * @param block, the number of the block
+   * @return type, the block type
+   */
+  public int getType(int block){
+    return types[block];
+  }
+
+  /**
+   * getOriginalLength
+   * Gets the number of bytes a block decodes to
+   * @param block, the number of the block
+   * @return originalLength, the number of decoded bytes
+   */
+  public int getOriginalLength(int block){
+    return originalLengths[block];
+  }
+
+  /**
+   * getCompressedLength
+   * Gets the number of bytes a block takes up in the file
+   * @param block, the number of the block
+   * @return compressedLength, the number of encoded bytes
+   */
+  public int getCompressedLength(int block){
+    return compressedLengths[block];
+  }
+
+  /**
+   * getExtraBits
+   * Gets the number of 0s added to the end of a block
+   * @param block, the number of the block
+   * @return extra, the number of extra bits
+   */
+  public int getExtraBits(int block){
+    return extraBits[block];
+  }
+
+  /**
+   * getOffset
+   * Gets where a block starts in the file
+   * @param block, the number of the block
+   * @return offset, the position of the first byte of the block
+   */
+  public long getOffset(int block){
+    return offsets[block];
+  }
+
+  /**
+   * getOriginalOffset
+   * Gets where a block starts in the original file. Every block starts on a whole byte with nothing carried
+   * over from the block before, so each one is a point decoding can start from
+   * @param block, the number of the block
+   * @return offset, the position in the original file of the first byte the block decodes to
+   */
+  public long getOriginalOffset(int block){
+    return originalOffsets[block];
+  }
+
+  /**
+   * getOriginalSize
+   * Gets the size of the original file
+   * @return size, the number of bytes all the blocks decode to
+   */
+  public long getOriginalSize(){
+    return (count == 0) ? 0 : originalOffsets[count - 1] + originalLengths[count - 1];
+  }
+
+  /**
+   * findBlock
+   * Finds the block that decodes to a position of the original file, with a binary search
+   * @param position, a position in the original file, below getOriginalSize
+   * @return block, the number of the block holding that byte
+   */
+  public int findBlock(long position){
+    int low = 0;
+    int high = count - 1;
+    while (low < high){ //Last block that starts at or before the position
+      int middle = (low + high + 1) >>> 1;
+      if (originalOffsets[middle] <= position){
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * getEnd
+   * Gets where the index starts, right after the last block
+   * @return end, the offset after the last block
+   */
+  public long getEnd(){
+    return (count == 0) ? dataStart : offsets[count - 1] + compressedLengths[count - 1];
+  }
+
+  /**
+   * write
+   * Writes the index and the footer after the last block
+   * @param out, the stream of the MZIP file, positioned after the last block
+   */
+  public void write(DataOutputStream out) throws IOException{
+    for (int i = 0; i < count; i++){
+      out.writeByte(types[i]);
+      out.writeInt(originalLengths[i]);
+      out.writeInt(compressedLengths[i]);
+      out.writeByte(extraBits[i]);
+    }
+    out.writeInt(count);
+    out.writeLong(getEnd());
+    out.writeInt(MARKER);
+  }
+
+  /**
+   * read
+   * Reads the index from the end of a block mode MZIP file
+   * @param file, the MZIP file
+   * @param dataStart, where the first block starts in the file
+   * @param blockSize, the block size from the header, which no block decodes to more than
+   * @return index, the index of the blocks in the file
+   */
+  static BlockIndex read(RandomAccessFile file, long dataStart, int blockSize) throws IOException{
+    if (file.length() < dataStart + FOOTER_SIZE){
+      throw new IOException("The block index of the MZIP file is missing");
+    }
+    file.seek(file.length() - FOOTER_SIZE);
+    int count = file.readInt();
+    long indexOffset = file.readLong();
+    if ((file.readInt() != MARKER) || (count < 0) || (indexOffset < dataStart)
+          || (indexOffset + (long)count * ENTRY_SIZE != file.length() - FOOTER_SIZE)){
+      throw new IOException("The block index of the MZIP file is not valid");
+    }
+    BlockIndex index = new BlockIndex(dataStart);
+    byte[] entries = new byte[count * ENTRY_SIZE];
+    file.seek(indexOffset);
+    file.readFully(entries);
+    for (int i = 0; i < count; i++){
+      int p = i * ENTRY_SIZE;
+      int originalLength = readInt(entries, p + 1);
+      int compressedLength = readInt(entries, p + 5);
+      int extra = entries[p + 9] & 0xFF;
+      if ((originalLength < 0) || (originalLength > blockSize) || (compressedLength < 0) || (extra > 7)
+            || (index.getEnd() + compressedLength > indexOffset)){ //A block must fit before the index
+        throw new IOException("The block index of the MZIP file is not valid");
+      }
+      index.add(entries[p] & 0xFF, originalLength, compressedLength, extra);
+    }
+    if (index.getEnd() != indexOffset){
+      throw new IOException("The block index of the MZIP file does not match its data");
+    }
+    return index;
+  }
+
+  /**
+   * readInt
+   * Reads a big endian int out of an array
+   * @param data, the array
+   * @param p, the index of the first byte
+   * @return value, the int
+   */
+  private static int readInt(byte[] data, int p){
+    return ((data[p] & 0xFF) << 24) | ((data[p + 1] & 0xFF) << 16) | ((data[p + 2] & 0xFF) << 8) | (data[p + 3] & 0xFF);
+  }
+}//end of BlockIndex class
@@ -0,0 +1,275 @@
+/* CodeTable.java
+ * Purpose: Stores the huffman code of every byte so that encoding is a lookup instead of a tree search
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.util.Arrays;
+
+class CodeTable{
+  //Variables
+  private int[] lengths; //Number of bits in the code of each byte, 0 if the byte is not in the data
+  private long[] codes; //The bits of each code, right aligned, first bit of the code is the highest one
+
+  /**
+   * CodeTable
+   * Constructor that walks the huffman tree once and stores the code of every leaf
+   * @param root, the root of the huffman tree
+   */
+  CodeTable(BinaryTreeNode<Byte> root){
+    this.lengths = new int[256];
+    this.codes = new long[256];
+    if ((root == null) || (root.isLeaf() && (root.getItem() == null))){ //Nothing in the data so there are no codes
+      return;
+    }
+    if (root.isLeaf()){ //Only one character in the data, it still needs one bit per byte
+      lengths[root.getItem() & 0xFF] = 1;
+      return;
+    }
+    fill(root, 0L, 0);
+  }
+
+  /**
+   * CodeTable
+   * Constructor that goes down the flat tree from the root, adding a 0 for every left branch and a 1 for
+   * every right branch. Joined nodes are numbered after their children, so counting down sets every parent first
+   * @param tree, the huffman tree
+   */
+  CodeTable(HuffmanTree tree){
+    this.lengths = new int[tree.getLeaves()];
+    this.codes = new long[tree.getLeaves()];
+    int root = tree.getRoot();
+    if (root < 0){ //Nothing in the data so there are no codes
+      return;
+    }
+    if (tree.isLeaf(root)){ //Only one character in the data, it still needs one bit per byte
+      lengths[root] = 1;
+      return;
+    }
+    long[] nodeCodes = new long[root + 1];
+    int[] nodeLengths = new int[root + 1];
+    for (int node = root; node >= tree.getLeaves(); node--){
+      for (int bit = 0; bit < 2; bit++){
+        int child = (bit == 0) ? tree.getLeft(node) : tree.getRight(node);
+        nodeCodes[child] = (nodeCodes[node] << 1) | bit;
+        nodeLengths[child] = nodeLengths[node] + 1;
+        if (tree.isLeaf(child)){
+          if (nodeLengths[child] > 64){ //The code has to fit in a long
+            throw new IllegalStateException("Huffman code longer than 64 bits");
+          }
+          lengths[child] = nodeLengths[child];
+          codes[child] = nodeCodes[child];
+        }
+      }
+    }
+  }
+
+  /**
+   * CodeTable
+   * Constructor that makes canonical codes from the code lengths alone: codes of the same length are
+   * consecutive in byte order and each length starts after the last code of the shorter lengths.
+   * Encoder and decoder only need to share the lengths to get identical codes
+   * @param codeLengths, the number of bits in the code of each symbol, 0 if the symbol is not in the data.
+   * There is one for each byte, or one for each symbol of a larger alphabet
+   */
+  CodeTable(int[] codeLengths){
+    this.lengths = new int[codeLengths.length];
+    this.codes = new long[codeLengths.length];
+    int maxLength = 0;
+    for (int i = 0; i < lengths.length; i++){
+      if ((codeLengths[i] < 0) || (codeLengths[i] > 64)){
+        throw new IllegalArgumentException("Huffman code length out of range: " + codeLengths[i]);
+      }
+      lengths[i] = codeLengths[i];
+      maxLength = Math.max(maxLength, lengths[i]);
+    }
+    long[] count = new long[maxLength + 1];
+    for (int i = 0; i < lengths.length; i++){
+      count[lengths[i]]++;
+    }
+    count[0] = 0;
+    long[] next = new long[maxLength + 1]; //First code of each length
+    long code = 0;
+    for (int length = 1; length <= maxLength; length++){
+      code = (code + count[length - 1]) << 1;
+      next[length] = code;
+    }
+    for (int i = 0; i < lengths.length; i++){
+      if (lengths[i] > 0){
+        codes[i] = next[lengths[i]]++;
+      }
+    }
+    for (int length = 1; (length <= maxLength) && (length < 64); length++){
+      if (next[length] > (1L << length)){ //More codes than fit in that many bits, the lengths are not from a huffman tree
+        throw new IllegalArgumentException("Huffman code lengths are over-subscribed");
+      }
+    }
+  }
+
+  /**
+   * canonical
+   * Makes a table with canonical codes of the same lengths as this one, so it compresses exactly as well
+   * @return table, the canonical code table
+   */
+  public CodeTable canonical(){
+    return new CodeTable(lengths);
+  }
+
+  /**
+   * isCanonical
+   * Checks if the codes are the canonical codes of their lengths, which is not so for tables read from an old
+   * printed tree, where the codes follow the branches of the tree
+   * @return Boolean, true if the code lengths alone give the same codes
+   */
+  public boolean isCanonical(){
+    return Arrays.equals(codes, new CodeTable(lengths).codes);
+  }
+
+  /**
+   * getMaxLength
+   * Gets the number of bits in the longest code
+   * @return maxLength, the longest code length, 0 if there are no codes
+   */
+  public int getMaxLength(){
+    int maxLength = 0;
+    for (int i = 0; i < lengths.length; i++){
+      maxLength = Math.max(maxLength, lengths[i]);
+    }
+    return maxLength;
+  }
+
+  /**
+   * isEmpty
+   * Checks if there are any codes in the table
+   * @return Boolean, true if no byte has a code
+   */
+  public boolean isEmpty(){
+    for (int i = 0; i < lengths.length; i++){
+      if (lengths[i] > 0){
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * writeLengths
+   * Packs the 256 code lengths: 0 to 64 is a length, 0x41 to 0x7F repeats the last length 1 to 63 more times,
+   * and 0x80 to 0xFF is a run of 1 to 128 bytes with no code
+   * @return packed, the packed code lengths
+   */
+  public byte[] writeLengths(){
+    byte[] packed = new byte[256];
+    int size = 0;
+    int i = 0;
+    while (i < 256){
+      int run = 1;
+      while ((i + run < 256) && (lengths[i + run] == lengths[i])){
+        run++;
+      }
+      if (lengths[i] == 0){
+        for (int left = run; left > 0; left -= 128){
+          packed[size++] = (byte)(0x80 | (Math.min(left, 128) - 1));
+        }
+      } else {
+        packed[size++] = (byte)lengths[i];
+        for (int left = run - 1; left > 0; left -= 63){
+          packed[size++] = (byte)(0x40 + Math.min(left, 63));
+        }
+      }
+      i += run;
+    }
+    return Arrays.copyOf(packed, size);
+  }
+
+  /**
+   * readLengths
+   * Unpacks code lengths written by writeLengths and makes the canonical codes from them
+   * @param packed, the packed code lengths
+   * @return table, the canonical code table
+   */
+  static CodeTable readLengths(byte[] packed){
+    int[] codeLengths = new int[256];
+    int size = 0;
+    for (int p = 0; p < packed.length; p++){
+      int b = packed[p] & 0xFF;
+      int run = 1;
+      int length;
+      if (b >= 0x80){
+        run = (b & 0x7F) + 1;
+        length = 0;
+      } else if (b > 0x40){
+        if (size == 0){
+          throw new IllegalArgumentException("Code lengths start with a repeat");
+        }
+        run = b - 0x40;
+        length = codeLengths[size - 1];
+      } else {
+        length = b;
+      }
+      if (size + run > 256){
+        throw new IllegalArgumentException("More than 256 code lengths");
+      }
+      for (int k = 0; k < run; k++){
+        codeLengths[size++] = length;
+      }
+    }
+    if (size != 256){
+      throw new IllegalArgumentException("Fewer than 256 code lengths");
+    }
+    return new CodeTable(codeLengths);
+  }
+
+  /**
+   * fill
+   * Goes down the tree adding a 0 for every left branch and a 1 for every right branch
+   * @param node, the current node in the tree
+   * @param code, the bits of the path to the current node
+   * @param length, the number of bits in the path to the current node
+   */
+  private void fill(BinaryTreeNode<Byte> node, long code, int length){
+    if (node.isLeaf()){
+      if (length > 64){ //The code has to fit in a long
+        throw new IllegalStateException("Huffman code longer than 64 bits");
+      }
+      int symbol = node.getItem() & 0xFF;
+      lengths[symbol] = length;
+      codes[symbol] = code;
+      return;
+    }
+    fill(node.getLeft(), code << 1, length + 1);
+    fill(node.getRight(), (code << 1) | 1L, length + 1);
+  }
+
+  /**
+   * size
+   * Gets the number of symbols in the alphabet
+   * @return size, 256 for bytes, more for an alphabet with other symbols
+   */
+  public int size(){
+    return lengths.length;
+  }
+
+  /**
+   * getLength
+   * Gets the number of bits in the code of a byte
+   * @param symbol, the byte as a number from 0 to 255
+   * @return length, the number of bits in the code
+   */
+  public int getLength(int symbol){
+    return lengths[symbol];
+  }
+
+  /**
+   * getCode
+   * Gets the bits of the code of a byte
+   * @param symbol, the byte as a number from 0 to 255
+   * @return code, the code right aligned in a long
+   */
+  public long getCode(int symbol){
+    return codes[symbol];
+  }
+}//end of CodeTable class
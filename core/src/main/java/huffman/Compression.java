@@ -0,0 +1,1436 @@
+/* Compression.java
+ * Purpose: Compresses a file into an MZIP file using Huffman coding
+ * Creators: Shi Han Qin 
+ * Date: 2019-04-01
+ */
+
+package huffman;
+
+//Imports
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class Compression<E> {
+  //Size of the blocks the file is read in
+  static final int BUFFER_SIZE = 1 << 16;
+  //Ways to build the huffman tree
+  static final int HEAP = 0;
+  static final int TWO_QUEUE = 1;
+  //Longest code allowed, so codes fit the bit buffers and decode tables easily
+  static final int MAX_CODE_LENGTH = 15;
+  //Streams up to this size are compressed in memory, bigger ones are saved to a temporary file first
+  static final int SPILL_SIZE = 1 << 26;
+  //What writeContextHeader leaves to the caller when the data is not coded: nothing, or the data as it is
+  private static final int CONTEXT_DONE = -1;
+  private static final int CONTEXT_STORED = -2;
+  //Read buffer of each thread, so compressing many files does not allocate a new one every time
+  private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+  
+  public static void main(String[] args) throws IOException {
+    //With file names on the command line, compress them all without asking anything
+    if ((args.length > 1) || ((args.length == 1) && !args[0].equals("-b"))){
+      System.exit(runBatch(args));
+    }
+    
+    //Variable initialization
+    Scanner input = new Scanner(System.in);
+    String file, fileExtension, fileName;
+    String tree;
+    CodeTable table;
+    int extraBits;
+    long [] frequencyArray = new long[256];
+    HuffmanTree huffTree = new HuffmanTree();
+    Compression<String> compression = new Compression<String>();
+    boolean valid = true;
+    boolean blockMode = (args.length > 0) && args[0].equals("-b"); //Compress in blocks on every core
+    
+    while(valid){
+      try{
+        //Ask for the file user wants to compress
+        System.out.println("Please enter the name of the text file, without its extension");
+        file = input.nextLine();
+        System.out.println("Please enter the file's extension (e.g .txt)");
+        fileExtension = input.nextLine();
+        fileName = file + fileExtension;
+        
+        //Assign frequency array      
+        BlockCompression blocks = new BlockCompression(ForkJoinPool.commonPool(), BlockCompression.DEFAULT_BLOCK_SIZE);
+        if (blockMode){
+          frequencyArray = blocks.makeFrequencyArray(fileName);
+        } else {
+          frequencyArray = compression.makeFrequencyArray(fileName);
+        }
+        
+        //Make priority queue and build the tree
+        huffTree.build(frequencyArray);
+        
+        //Find the code of every character, only the code lengths are kept from the tree
+        table = compression.makeCodeTable(huffTree, frequencyArray, MAX_CODE_LENGTH);
+        
+        //Print the code lengths in place of the tree
+        tree = compression.printLengths(table);
+        
+        //Find bits leftover
+        extraBits = compression.extraBits(frequencyArray, table);
+        
+        //Print all necessary info and the encoded data to MZIP file
+        if (blockMode){
+          blocks.outToFile(file, fileExtension, tree, table);
+        } else {
+          compression.outToFile(file, fileExtension, tree, table, extraBits); 
+        }
+        
+        valid = false;
+      } catch (FileNotFoundException e){
+        System.out.println("The file name you entered was not valid");
+        
+      } 
+    }
+  }//end of main
+  
+  /** 
+   * runBatch
+   * Compresses every file named on the command line: [-b | -B size | -s | -A | -a | -c | -z level | -W window | -d dictionary | -t dictionary] [-i streams] [-m] [-o directory] file...
+   * -b compresses in blocks on every core, -B size does the same with blocks of that many bytes, -s does the same with counts estimated from a sample of each file,
+   * -A adds what each file has grown by to its block mode MZIP file, making the MZIP file if there is none yet,
+   * -a compresses in one pass with adaptive codes, -c codes every byte with a table chosen by the byte before it, -z replaces repeated strings with copies of earlier ones at a level from 1 to 9 before coding,
+   * -W does the same with a window of that many bytes, -d uses the code table of a dictionary file instead of storing one,
+   * -t trains a dictionary file from the files instead of compressing them, -i codes every block into that many interleaved streams
+   * so they decode side by side, which turns on block mode,
+   * -m prints the time, bytes, throughput and allocation of every stage and the entropy against the code length
+   * to standard error, -o writes the MZIP files into another directory. With -a, -c or -z, a file named - is read from standard input
+   * and written to standard output, as it arrives with -a or -z
+   * @param args, the command line
+   * @return status, 0 if every file was compressed, 1 if any failed, 2 if the command line was wrong
+   */
+  static int runBatch(String[] args){
+    boolean blockMode = false;
+    int blockSize = BlockCompression.DEFAULT_BLOCK_SIZE;
+    boolean sampled = false;
+    boolean append = false;
+    int streams = 1;
+    boolean adaptive = false;
+    boolean context = false;
+    boolean lz = false;
+    int level = MatchFinder.DEFAULT_LEVEL;
+    int window = LzOutputStream.DEFAULT_WINDOW;
+    String dictionaryName = null;
+    boolean training = false;
+    File directory = null;
+    int status = 0;
+    int i = 0;
+    while ((i < args.length) && args[i].startsWith("-") && !args[i].equals("-")){
+      if (args[i].equals("-b")){
+        blockMode = true;
+      } else if (args[i].equals("-B") && (i + 1 < args.length)){
+        blockMode = true;
+        try{
+          blockSize = Integer.parseInt(args[++i]);
+        } catch (NumberFormatException e){
+          blockSize = 0;
+        }
+        if (blockSize <= 0){
+          System.err.println("The block size must be a positive number of bytes");
+          return 2;
+        }
+      } else if (args[i].equals("-s")){
+        sampled = true;
+      } else if (args[i].equals("-A")){
+        append = true;
+      } else if (args[i].equals("-i") && (i + 1 < args.length)){
+        blockMode = true;
+        try{
+          streams = Integer.parseInt(args[++i]);
+        } catch (NumberFormatException e){
+          streams = 0;
+        }
+        if ((streams < 1) || (streams > BlockCompression.MAX_STREAMS)){
+          System.err.println("The number of streams must be from 1 to " + BlockCompression.MAX_STREAMS);
+          return 2;
+        }
+      } else if (args[i].equals("-a")){
+        adaptive = true;
+      } else if (args[i].equals("-c")){
+        context = true;
+      } else if ((args[i].equals("-z") || args[i].equals("-W")) && (i + 1 < args.length)){
+        lz = true;
+        boolean isLevel = args[i].equals("-z");
+        try{
+          if (isLevel){
+            level = Integer.parseInt(args[++i]);
+          } else { //Round up to a power of two
+            window = Math.max(LzOutputStream.MIN_WINDOW, Integer.highestOneBit(Math.max(1, Integer.parseInt(args[++i]) - 1)) << 1);
+          }
+        } catch (NumberFormatException e){
+          level = 0;
+          window = 0;
+        }
+        if ((level < MatchFinder.MIN_LEVEL) || (level > MatchFinder.MAX_LEVEL) || (window <= 0) || (window > LzOutputStream.MAX_WINDOW)){
+          System.err.println(isLevel ? "The level must be from 1 to 9" : "The window must be from 1 to " + LzOutputStream.MAX_WINDOW + " bytes");
+          return 2;
+        }
+      } else if ((args[i].equals("-d") || args[i].equals("-t")) && (i + 1 < args.length)){
+        training = args[i].equals("-t");
+        dictionaryName = args[++i];
+      } else if (args[i].equals("-m")){
+        Metrics.setListener(Metrics.printTo(System.err));
+      } else if (args[i].equals("-o") && (i + 1 < args.length)){
+        directory = new File(args[++i]);
+      } else {
+        System.err.println("Usage: Compression [-b | -B size | -s | -A | -a | -c | -z level | -W window | -d dictionary | -t dictionary] [-i streams] [-m] [-o directory] file...");
+        return 2;
+      }
+      i++;
+    }
+    int modes = (blockMode || sampled || append ? 1 : 0) + (adaptive ? 1 : 0) + (context ? 1 : 0) + (lz ? 1 : 0) + (dictionaryName != null ? 1 : 0);
+    if (modes > 1){
+      System.err.println("Usage: Compression [-b | -B size | -s | -A | -a | -c | -z level | -W window | -d dictionary | -t dictionary] [-i streams] [-m] [-o directory] file...");
+      return 2;
+    }
+    Dictionary dictionary = null;
+    try{
+      if (training){
+        List<Path> samples = new ArrayList<Path>();
+        for (int j = i; j < args.length; j++){
+          samples.add(Path.of(args[j]));
+        }
+        dictionary = Dictionary.train(samples);
+        dictionary.save(Path.of(dictionaryName));
+        System.out.println("Trained dictionary " + dictionary.getId() + " from " + samples.size() + " files");
+        return 0;
+      } else if (dictionaryName != null){
+        dictionary = Dictionary.load(Path.of(dictionaryName));
+      }
+    } catch (IOException e){
+      System.err.println(dictionaryName + ": " + e.getMessage());
+      return 1;
+    }
+    for (; i < args.length; i++){
+      try{
+        if (adaptive && args[i].equals("-")){
+          compressAdaptive(System.in, System.out, "stdin");
+          continue;
+        } else if (context && args[i].equals("-")){
+          compressContext(System.in, System.out, "stdin");
+          continue;
+        } else if (lz && args[i].equals("-")){
+          compressLz(System.in, System.out, "stdin", level, window);
+          continue;
+        }
+        File source = new File(args[i]);
+        String[] name = splitName(source.getName());
+        File target = new File((directory != null) ? directory : source.getAbsoluteFile().getParentFile(), name[0] + ".MZIP");
+        if (adaptive){
+          compressAdaptive(source.toPath(), target.toPath());
+        } else if (context){
+          compressContext(source.toPath(), target.toPath());
+        } else if (lz){
+          compressLz(source.toPath(), target.toPath(), level, window);
+        } else if (dictionary != null){
+          compress(source.toPath(), target.toPath(), dictionary);
+        } else if (append){
+          append(source.toPath(), target.toPath(), blockSize, streams);
+        } else {
+          compress(source.toPath(), target.toPath(), (blockMode || sampled) ? blockSize : 0, sampled, streams);
+        }
+      } catch (IOException e){ //Keep going with the other files
+        System.err.println(args[i] + ": " + e.getMessage());
+        status = 1;
+      }
+    }
+    return status;
+  }
+  
+  /** 
+   * compress
+   * Compresses a file into an MZIP file. Every call has its own state, so many threads can compress at once
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   */
+  public static void compress(Path source, Path target) throws IOException{
+    compress(source, target, false);
+  }
+  
+  /** 
+   * compress
+   * Compresses a file into an MZIP file, in one stream or in blocks on every core
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   * @param blockMode, true to compress in blocks
+   */
+  public static void compress(Path source, Path target, boolean blockMode) throws IOException{
+    compress(source, target, blockMode, false);
+  }
+  
+  /** 
+   * compress
+   * Compresses a file into a block mode MZIP file, optionally with counts estimated from a sample of the file
+   * so a big file is read about once instead of twice. The sample may give slightly longer output
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   * @param blockMode, true to compress in blocks
+   * @param sampled, true to estimate the counts, which also turns on block mode
+   */
+  public static void compress(Path source, Path target, boolean blockMode, boolean sampled) throws IOException{
+    compress(source, target, (blockMode || sampled) ? BlockCompression.DEFAULT_BLOCK_SIZE : 0, sampled);
+  }
+  
+  /** 
+   * compress
+   * Compresses a file into an MZIP file with blocks of a chosen size. Every block starts on a whole byte and is
+   * listed in the block index, so smaller blocks let SeekableMzipChannel start decoding closer to any position
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   * @param blockSize, the number of bytes of the original file in each block, 0 for one stream
+   * @param sampled, true to estimate the counts, only with blocks
+   */
+  public static void compress(Path source, Path target, int blockSize, boolean sampled) throws IOException{
+    compress(source, target, blockSize, sampled, 1);
+  }
+  
+  /** 
+   * compress
+   * Compresses a file into a block mode MZIP file with every block coded into several interleaved streams.
+   * Each stream has its own bit reader when decoding, so the codes of different streams are looked up side by side
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   * @param blockSize, the number of bytes of the original file in each block, 0 for one stream
+   * @param sampled, true to estimate the counts, only with blocks
+   * @param streams, the number of streams in each block, 1 for one, only with blocks
+   */
+  public static void compress(Path source, Path target, int blockSize, boolean sampled, int streams) throws IOException{
+    String[] name = splitName(source.getFileName().toString());
+    if (!Files.isRegularFile(source)){ //Check before the target is made, so a bad name leaves nothing behind
+      throw new FileNotFoundException(source + " (No such file)");
+    }
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE);
+    boolean done = false;
+    try{
+      new Compression<String>().compressFile(source.toString(), name[0], name[1], out, blockSize, sampled, streams);
+      done = true;
+    } finally{
+      out.close();
+      if (!done){ //Do not leave half an MZIP file behind
+        Files.deleteIfExists(target);
+      }
+    }
+  }
+  
+  /** 
+   * append
+   * Adds the bytes a file has grown by since its block mode MZIP file was made, or last appended to, as more blocks
+   * at the end of the MZIP file. The time it takes goes with the new bytes, not the size of the whole file. New
+   * blocks are coded with the table in the header while it still fits them, and with their own table when it does not.
+   * If the MZIP file does not exist yet or the file was empty, the whole file is compressed in block mode
+   * @param source, the file, which must only have had bytes added to its end
+   * @param target, the block mode MZIP file made from it
+   * @param blockSize, the number of bytes in each block, only used when the MZIP file is made new
+   * @param streams, the number of interleaved streams in each block, 1 for one
+   */
+  public static void append(Path source, Path target, int blockSize, int streams) throws IOException{
+    if (!Files.isRegularFile(source)){
+      throw new FileNotFoundException(source + " (No such file)");
+    }
+    if (Files.exists(target)){
+      RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw");
+      try{
+        Decompression decompression = new Decompression();
+        InputStream in = new BufferedInputStream(new FileInputStream(file.getFD()));
+        String name = decompression.readLine(in);
+        String tree = decompression.readLine(in);
+        if (name == null){
+          throw new IOException("The MZIP data is empty");
+        }
+        if ((tree != null) && (tree.length() > 0)){ //An empty file has no blocks or table yet, so it is made again below
+          String extra = null;
+          CodeTable codes = null;
+          if (tree.startsWith("C")){ //Block mode always stores packed code lengths
+            codes = decompression.readCodes(tree, in);
+            extra = decompression.readLine(in);
+          }
+          if ((extra == null) || !extra.startsWith("B")){
+            throw new IOException(target + " is not in block mode, compress it with -b to append to it");
+          }
+          int size = Decompression.parseBlockSize(extra);
+          BlockIndex index = BlockIndex.read(file, decompression.getHeaderLength(), size);
+          long before = file.length();
+          Metrics.Timer timer = Metrics.start("append", source.toString());
+          long length = new BlockCompression(ForkJoinPool.commonPool(), size, streams).appendMzip(file, index, codes, source.toString());
+          Metrics.stop(timer, length, file.length() - before);
+          return;
+        }
+      } finally{
+        file.close();
+      }
+    }
+    compress(source, target, (blockSize > 0) ? blockSize : BlockCompression.DEFAULT_BLOCK_SIZE, false, streams);
+  }
+  
+  /** 
+   * compress
+   * Compresses a file with the code table of a dictionary, the header only names the dictionary
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   * @param dictionary, the trained dictionary, which must also be loaded to decompress
+   */
+  public static void compress(Path source, Path target, Dictionary dictionary) throws IOException{
+    if (!Files.isRegularFile(source)){
+      throw new FileNotFoundException(source + " (No such file)");
+    }
+    InputStream in = Files.newInputStream(source);
+    try{
+      OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE);
+      boolean done = false;
+      try{
+        compress(in, out, source.getFileName().toString(), dictionary);
+        done = true;
+      } finally{
+        out.close();
+        if (!done){
+          Files.deleteIfExists(target);
+        }
+      }
+    } finally{
+      in.close();
+    }
+  }
+  
+  /** 
+   * compress
+   * Compresses everything in a stream into MZIP data. The stream is kept in memory if it is small enough,
+   * otherwise it is saved to a temporary file so it can be read twice
+   * @param in, the data to compress, read to its end but not closed
+   * @param out, the stream the MZIP data is written to, flushed but not closed
+   * @param name, the file name and extension stored in the header, e.g data.txt
+   */
+  public static void compress(InputStream in, OutputStream out, String name) throws IOException{
+    compress(in, out, name, null);
+  }
+  
+  /** 
+   * compress
+   * Compresses everything in a stream into MZIP data, with the code table of a dictionary if one is given.
+   * Streams too big to keep in memory always get their own table, a dictionary only pays off for small data
+   * @param in, the data to compress, read to its end but not closed
+   * @param out, the stream the MZIP data is written to, flushed but not closed
+   * @param name, the file name and extension stored in the header, e.g data.txt
+   * @param dictionary, the trained dictionary, or null to build a table from the data
+   */
+  public static void compress(InputStream in, OutputStream out, String name, Dictionary dictionary) throws IOException{
+    Compression<String> compression = new Compression<String>();
+    String[] parts = splitName(name);
+    byte[] data = new byte[BUFFER_SIZE];
+    int length = 0;
+    int count;
+    while ((count = in.read(data, length, data.length - length)) > 0){
+      length += count;
+      if (length == data.length){
+        if (length >= SPILL_SIZE){ //Too big to keep in memory
+          compression.compressSpilled(data, length, in, parts, out);
+          return;
+        }
+        data = Arrays.copyOf(data, length * 2);
+      }
+    }
+    compression.compressBytes(data, length, parts, dictionary, out, null);
+  }
+  
+  /** 
+   * compressBytes
+   * Compresses bytes that are already in memory into MZIP data
+   * @param data, the array holding the bytes, from index 0
+   * @param length, the number of bytes to compress
+   * @param name, the file name and extension stored in the header, as made by splitName
+   * @param dictionary, the trained dictionary, or null to build a table from the data
+   * @param out, the stream the MZIP data is written to, flushed but not closed
+   * @param bits, a bit writer on top of out to reuse, or null to make one
+   */
+  void compressBytes(byte[] data, int length, String[] name, Dictionary dictionary, OutputStream out, BitOutputStream bits) throws IOException{
+    long[] frequencyArray = makeFrequencyArray(data, length);
+    CodeTable table;
+    String tree;
+    if (dictionary != null){ //Name the dictionary instead of storing the table
+      table = dictionary.getTable();
+      tree = (length > 0) ? "D" + dictionary.getId() : "";
+    } else {
+      table = TableCache.shared().getCodeTable(frequencyArray);
+      tree = printLengths(table);
+    }
+    int repeated = repeatedByte(frequencyArray);
+    if (repeated >= 0){ //One byte over and over, store it once
+      writeHeader(out, name[0], name[1], "R", "R" + length);
+      out.write(repeated);
+      out.flush();
+      return;
+    }
+    if ((length > 0) && !isWorthCoding(frequencyArray, table, tree.length())){ //Already compressed or random, store it as it is
+      writeHeader(out, name[0], name[1], "S", "S" + length);
+      out.write(data, 0, length);
+      out.flush();
+      return;
+    }
+    int extraBits = extraBits(frequencyArray, table);
+    writeHeader(out, name[0], name[1], tree, Integer.toString(extraBits));
+    if (length > 0){
+      if (bits == null){
+        bits = new BitOutputStream(out);
+      }
+      encode(table, data, 0, length, bits);
+      bits.flush();
+    }
+    out.flush();
+  }
+  
+  /** 
+   * compressAdaptive
+   * Compresses a file in one pass with codes that follow the data, see AdaptiveOutputStream
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   */
+  public static void compressAdaptive(Path source, Path target) throws IOException{
+    if (!Files.isRegularFile(source)){
+      throw new FileNotFoundException(source + " (No such file)");
+    }
+    InputStream in = Files.newInputStream(source);
+    try{
+      OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE);
+      boolean done = false;
+      try{
+        compressAdaptive(in, out, source.getFileName().toString());
+        done = true;
+      } finally{
+        out.close();
+        if (!done){
+          Files.deleteIfExists(target);
+        }
+      }
+    } finally{
+      in.close();
+    }
+  }
+  
+  /** 
+   * compressAdaptive
+   * Compresses a stream of any length in one pass. Nothing is kept but the current chunk, and whatever
+   * has been read is sent on each time the input has to wait, so a live stream can be followed
+   * @param in, the data to compress, read to its end but not closed
+   * @param out, the stream the MZIP data is written to, flushed but not closed
+   * @param name, the file name and extension stored in the header, e.g log.txt
+   */
+  public static void compressAdaptive(InputStream in, OutputStream out, String name) throws IOException{
+    AdaptiveOutputStream adaptive = new AdaptiveOutputStream(out, name);
+    byte[] data = new byte[BUFFER_SIZE];
+    int count;
+    while ((count = in.read(data)) >= 0){
+      adaptive.write(data, 0, count);
+      if (in.available() == 0){ //The next read may wait, so let the reader catch up first
+        adaptive.flush();
+      }
+    }
+    adaptive.finish();
+  }
+  
+  /** 
+   * compressLz
+   * Compresses a file with repeated strings replaced by copies of earlier ones, see LzOutputStream
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   * @param level, the effort from 1 (fastest) to 9 (smallest output)
+   * @param window, the furthest back a copy may start, a power of two
+   */
+  public static void compressLz(Path source, Path target, int level, int window) throws IOException{
+    if (!Files.isRegularFile(source)){
+      throw new FileNotFoundException(source + " (No such file)");
+    }
+    InputStream in = Files.newInputStream(source);
+    try{
+      OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE);
+      boolean done = false;
+      try{
+        compressLz(in, out, source.getFileName().toString(), level, window);
+        done = true;
+      } finally{
+        out.close();
+        if (!done){
+          Files.deleteIfExists(target);
+        }
+      }
+    } finally{
+      in.close();
+    }
+  }
+  
+  /** 
+   * compressLz
+   * Compresses a stream of any length in one pass with repeated strings replaced by copies of earlier ones
+   * @param in, the data to compress, read to its end but not closed
+   * @param out, the stream the MZIP data is written to, flushed but not closed
+   * @param name, the file name and extension stored in the header, e.g app.log
+   * @param level, the effort from 1 (fastest) to 9 (smallest output)
+   * @param window, the furthest back a copy may start, a power of two
+   */
+  public static void compressLz(InputStream in, OutputStream out, String name, int level, int window) throws IOException{
+    LzOutputStream lz = new LzOutputStream(out, name, level, window);
+    byte[] data = new byte[BUFFER_SIZE];
+    int count;
+    while ((count = in.read(data)) >= 0){
+      lz.write(data, 0, count);
+      if (in.available() == 0){ //The next read may wait, so let the reader catch up first
+        lz.flush();
+      }
+    }
+    lz.finish();
+    out.flush();
+  }
+
+  /**
+   * compressContext
+   * Compresses a file with every byte coded by a table chosen by the byte before it, see ContextModel
+   * @param source, the file to compress
+   * @param target, the MZIP file to write
+   */
+  public static void compressContext(Path source, Path target) throws IOException{
+    if (!Files.isRegularFile(source)){
+      throw new FileNotFoundException(source + " (No such file)");
+    }
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE);
+    boolean done = false;
+    try{
+      new Compression<String>().compressContextFile(source.toString(), splitName(source.getFileName().toString()), out);
+      done = true;
+    } finally{
+      out.close();
+      if (!done){
+        Files.deleteIfExists(target);
+      }
+    }
+  }
+
+  /**
+   * compressContext
+   * Compresses everything in a stream with every byte coded by a table chosen by the byte before it.
+   * The data is read twice, so streams too big to keep in memory are saved to a temporary file first
+   * @param in, the data to compress, read to its end but not closed
+   * @param out, the stream the MZIP data is written to, flushed but not closed
+   * @param name, the file name and extension stored in the header, e.g data.txt
+   */
+  public static void compressContext(InputStream in, OutputStream out, String name) throws IOException{
+    Compression<String> compression = new Compression<String>();
+    String[] parts = splitName(name);
+    byte[] data = new byte[BUFFER_SIZE];
+    int length = 0;
+    int count;
+    while ((count = in.read(data, length, data.length - length)) > 0){
+      length += count;
+      if (length == data.length){
+        if (length >= SPILL_SIZE){ //Too big to keep in memory
+          Path spill = Files.createTempFile("huffman", ".spill");
+          try{
+            OutputStream file = Files.newOutputStream(spill);
+            try{
+              file.write(data, 0, length);
+              in.transferTo(file);
+            } finally{
+              file.close();
+            }
+            compression.compressContextFile(spill.toString(), parts, out);
+          } finally{
+            Files.deleteIfExists(spill);
+          }
+          return;
+        }
+        data = Arrays.copyOf(data, length * 2);
+      }
+    }
+    ContextModel model = new ContextModel();
+    model.count(data, 0, length);
+    int extraBits = compression.writeContextHeader(model, parts, out);
+    if (extraBits == CONTEXT_STORED){
+      out.write(data, 0, length);
+    } else if (extraBits >= 0){
+      BitOutputStream bits = new BitOutputStream(out);
+      model.encode(data, 0, length, bits);
+      bits.flush();
+    }
+    out.flush();
+  }
+
+  /**
+   * compressContextFile
+   * Counts the bytes of a file in the context of the byte before each, then reads it again to code it
+   * @param fileName, the name of the file to compress
+   * @param name, the file name and extension stored in the header, as made by splitName
+   * @param out, the stream the MZIP data is written to, flushed but not closed
+   */
+  void compressContextFile(String fileName, String[] name, OutputStream out) throws IOException{
+    ContextModel model = new ContextModel();
+    byte[] buffer = BUFFERS.get();
+    long size = 0;
+    Metrics.Timer timer = Metrics.start("count", fileName);
+    MappedInput in = new MappedInput(fileName);
+    try{
+      int count;
+      while ((count = in.read(buffer)) > 0){
+        model.count(buffer, 0, count);
+        size += count;
+      }
+    } finally{
+      in.close();
+    }
+    Metrics.stop(timer, size, 0);
+    int extraBits = writeContextHeader(model, name, out);
+    if (extraBits == CONTEXT_STORED){ //Copied without the encode pass
+      writeStored(fileName, size, out);
+    } else if (extraBits >= 0){
+      timer = Metrics.start("encode", fileName);
+      BitOutputStream bits = new BitOutputStream(out);
+      in = new MappedInput(fileName);
+      try{
+        int count;
+        while ((count = in.read(buffer)) > 0){
+          model.encode(buffer, 0, count, bits);
+        }
+      } finally{
+        in.close();
+      }
+      if (bits.flush() != extraBits){ //Padding has to match what was written in the header
+        throw new IOException("The file " + fileName + " changed while it was being compressed");
+      }
+      Metrics.stop(timer, size, 0);
+    }
+    out.flush();
+  }
+
+  /**
+   * writeContextHeader
+   * Clusters the contexts and writes the header lines, O and the number of extra bits, then the context tables.
+   * Empty data gets only the name line, the same as in every other mode. Data that is one byte repeated is
+   * written whole as that byte, and data the tables and codes would not make smaller gets a stored header
+   * @param model, the model holding the counts of all of the data
+   * @param name, the file name and extension stored in the header, as made by splitName
+   * @param out, the stream the header is written to
+   * @return extraBits, the number of extra bits the coded data will end with, CONTEXT_DONE if nothing follows
+   * the header, or CONTEXT_STORED if the data follows as it is
+   */
+  private int writeContextHeader(ContextModel model, String[] name, OutputStream out) throws IOException{
+    if (model.isEmpty()){
+      writeHeader(out, name[0], name[1], "", "");
+      return CONTEXT_DONE;
+    }
+    long[] frequency = model.getFrequency();
+    long size = 0;
+    for (int i = 0; i < 256; i++){
+      size += frequency[i];
+    }
+    int repeated = repeatedByte(frequency);
+    if (repeated >= 0){ //One byte over and over, store it once
+      writeHeader(out, name[0], name[1], "R", "R" + size);
+      out.write(repeated);
+      return CONTEXT_DONE;
+    }
+    Metrics.Timer timer = Metrics.start("tree", null);
+    model.build();
+    Metrics.stop(timer, 0, 0);
+    ByteArrayOutputStream tables = new ByteArrayOutputStream();
+    model.write(tables);
+    if ((model.codedBits() + 7) / 8 + tables.size() >= size){ //Already compressed or random, store it as it is
+      writeHeader(out, name[0], name[1], "S", "S" + size);
+      return CONTEXT_STORED;
+    }
+    int extraBits = model.extraBits();
+    writeHeader(out, name[0], name[1], "O", Integer.toString(extraBits));
+    tables.writeTo(out);
+    return extraBits;
+  }
+
+  /** 
+   * compressSpilled
+   * Saves a stream that is too big for memory to a temporary file, then compresses the file
+   * @param data, the start of the stream that was already read
+   * @param length, the number of bytes already read
+   * @param in, the rest of the stream
+   * @param name, the file name and extension stored in the header
+   * @param out, the stream the MZIP data is written to
+   */
+  private void compressSpilled(byte[] data, int length, InputStream in, String[] name, OutputStream out) throws IOException{
+    Path spill = Files.createTempFile("huffman", ".spill");
+    try{
+      OutputStream file = Files.newOutputStream(spill);
+      try{
+        file.write(data, 0, length);
+        in.transferTo(file);
+      } finally{
+        file.close();
+      }
+      compressFile(spill.toString(), name[0], name[1], out, 0, false, 1);
+    } finally{
+      Files.deleteIfExists(spill);
+    }
+  }
+  
+  /** 
+   * compressFile
+   * Runs every stage of compression on a file and writes the MZIP data to a stream
+   * @param fileName, the name of the file to compress
+   * @param file, the file name stored in the header
+   * @param fileExtension, the file extension stored in the header
+   * @param out, the stream the MZIP data is written to
+   * @param blockSize, the number of bytes in each block encoded on every core, 0 for one stream
+   * @param sampled, true to estimate the counts from part of the file, only in block mode
+   * @param streams, the number of interleaved streams in each block, only in block mode
+   */
+  void compressFile(String fileName, String file, String fileExtension, OutputStream out, int blockSize, boolean sampled, int streams) throws IOException{
+    boolean blockMode = blockSize > 0;
+    BlockCompression blocks = new BlockCompression(ForkJoinPool.commonPool(), blockMode ? blockSize : BlockCompression.DEFAULT_BLOCK_SIZE, streams);
+    long size = new File(fileName).length();
+    long[] frequencyArray;
+    Metrics.Timer timer = Metrics.start("count", fileName);
+    if (blockMode && sampled){
+      frequencyArray = blocks.sampleFrequencyArray(fileName, BlockCompression.DEFAULT_SAMPLE_SIZE);
+    } else if (blockMode){
+      frequencyArray = blocks.makeFrequencyArray(fileName);
+    } else {
+      frequencyArray = makeFrequencyArray(fileName);
+    }
+    Metrics.stop(timer, (sampled && (size > 2 * BlockCompression.DEFAULT_SAMPLE_SIZE)) ? BlockCompression.DEFAULT_SAMPLE_SIZE : size, 0);
+    CodeTable table = TableCache.shared().getCodeTable(frequencyArray); //Built with makeTree and makeCodeTable unless the counts were seen lately
+    String tree = printLengths(table);
+    Metrics.CountingOutputStream counted = null;
+    if (Metrics.isEnabled()){ //Count the output only when someone wants it
+      counted = new Metrics.CountingOutputStream(out);
+      out = counted;
+    }
+    timer = Metrics.start("encode", fileName);
+    int repeated = repeatedByte(frequencyArray);
+    if (blockMode){ //Every block is checked on its own
+      blocks.writeMzip(fileName, file, fileExtension, tree, table, out);
+    } else if (repeated >= 0){ //One byte over and over, store it once
+      writeHeader(out, file, fileExtension, "R", "R" + frequencyArray[repeated]);
+      out.write(repeated);
+      out.flush();
+    } else if ((tree.length() > 0) && !isWorthCoding(frequencyArray, table, tree.length())){ //Already compressed or random, copy it without the encode pass
+      writeHeader(out, file, fileExtension, "S", "S" + size);
+      writeStored(fileName, size, out);
+    } else {
+      writeMzip(fileName, file, fileExtension, tree, table, extraBits(frequencyArray, table), out);
+    }
+    if (counted != null){
+      Metrics.stop(timer, size, counted.getCount());
+      Metrics.compressed(fileName, size, frequencyArray, table, counted.getCount());
+    }
+  }
+
+  
+  /** 
+   * splitName
+   * Splits a file name into the name and the extension, the extension keeps its dot
+   * @param name, the file name, e.g Frankenstein.txt
+   * @return parts, the name and the extension, e.g Frankenstein and .txt
+   */
+  static String[] splitName(String name){
+    int dot = name.lastIndexOf('.');
+    if (dot <= 0){ //No extension, or a hidden file like .profile
+      return new String[] {name, ""};
+    }
+    return new String[] {name.substring(0, dot), name.substring(dot)};
+  }
+  
+  
+  /** 
+   * makeFrequencyArray
+   * Creates a long array of 0 to 255; the frequency of the character is stored in corresponding to the index of the array 
+   * @param fileName, the name of the file to compress
+   * @return frequency, a long array with frequency values of the different characters 
+   */
+  long[] makeFrequencyArray(String fileName) throws IOException{
+    MappedInput in = null;
+    //Counts of 0 to 255; each index corresponds to a different character
+    Histogram histogram = new Histogram();
+    byte [] buffer = BUFFERS.get();
+    try {
+      in = new MappedInput(fileName); //Read the file
+      int count;
+      
+      //Find frequencies of the data, one block at a time
+      while ((count = in.read(buffer)) > 0) {
+        histogram.add(buffer, 0, count);
+      }
+    } finally {
+      if (in != null) { //Close the file
+        in.close();
+      } 
+    }
+    return histogram.getFrequency();
+  }
+  
+  /** 
+   * makeFrequencyArray
+   * Creates the frequency array of data that is already in memory
+   * @param data, the array holding the data
+   * @param length, the number of bytes of data in the array
+   * @return frequency, a long array with frequency values of the different characters 
+   */
+  long[] makeFrequencyArray(byte[] data, int length){
+    Histogram histogram = new Histogram();
+    histogram.add(data, 0, length);
+    return histogram.getFrequency();
+  }
+  
+  /** 
+   * makeQueue
+   * Creates a priority queue of BinaryTreeNode<Byte>, they are all leaf nodes 
+   * @param array, a long array that has the frequecy of each character stored
+   * @return queue, a priority queue of BinaryTreeNodes of type Byte, the lowest frequencies have highest priority 
+   */
+  PriorityQ<BinaryTreeNode<Byte>> makeQueue(long[] array){
+    PriorityQ<BinaryTreeNode<Byte>> queue = new PriorityQ<BinaryTreeNode<Byte>>();
+    
+    for (int i=0;i<256;i++){
+      if (array[i] != 0){ //Make sure the character actually exists in the data
+        BinaryTreeNode<Byte> newNode = new BinaryTreeNode<Byte>((byte)(i),array[i]); //Create a new BinaryTreeNode<Byte> that stores the character code
+        queue.enqueue(newNode,array[i]); //Add to queue                              //and the frequency of it as the priority
+      }
+    }
+    return queue;
+  }
+  
+  /** 
+   * buildTree
+   * Creates a huffman tree of the data by removing two nodes of lowest frequency from the queue and joining them until nothing is left
+   * @param queue, the priority queue of BinaryTreeNodes that will form the tree
+   * @return joined, a BinaryTreeNode that is the root of the huffman tree 
+   */
+  BinaryTreeNode<Byte> buildTree(PriorityQ<BinaryTreeNode<Byte>> queue){
+    //joined is a new node that is created every time two items are dequeued
+    BinaryTreeNode<Byte> joined = new BinaryTreeNode<Byte>();
+    while(!queue.isEmpty()){
+      BinaryTreeNode<Byte> temp1 = new BinaryTreeNode<Byte>(); //First dequeued item
+      BinaryTreeNode<Byte> temp2 = new BinaryTreeNode<Byte>(); //Second dequeued item
+      temp1 = queue.dequeue().getItem();
+      if(queue.isEmpty()){ //if there was only one node left in the queue then it is already the root of the tree
+        return temp1;
+      } else { 
+        temp2 = queue.dequeue().getItem();
+        joined = merge(temp1,temp2); //merge method called to join the two dequeued items
+        joined.setPriority(temp1.getPriority() + temp2.getPriority()); //Reset to add the new priority of the node
+        queue.enqueue(joined,temp1.getPriority()+temp2.getPriority()); //Enqueue the joined item again with the added frequencies
+      }
+    }
+    return joined;
+  }
+  
+  /** 
+   * merge
+   * Creates a parent BinaryTreeNode and sets the inputs into the methods as its two children
+   * @param left, the first BinaryTreeNode to be merged together
+   * @param right, the second BinaryTreeNode to be merged together
+   * @return merged, a BinaryTreeNode that has merged the two inputs to the method 
+   */
+  BinaryTreeNode<Byte> merge(BinaryTreeNode<Byte> left, BinaryTreeNode<Byte> right){
+    BinaryTreeNode<Byte> merged = new BinaryTreeNode<Byte>(null,left,right); //item in node is null, left and right children are set
+    return merged;
+  }
+  
+  /** 
+   * buildTreeSorted
+   * Creates a huffman tree in linear time with two queues: leaves sorted by frequency, and joined nodes, 
+   * which are made in order of frequency so they never need sorting
+   * @param array, a long array that has the frequecy of each character stored
+   * @return root, a BinaryTreeNode that is the root of the huffman tree 
+   */
+  BinaryTreeNode<Byte> buildTreeSorted(long[] array){
+    //Sort the characters that exist by frequency, ties go to the smaller character.
+    //Frequency and character share one long, which holds any frequency below 2^55
+    long[] sorted = new long[256];
+    int leafCount = 0;
+    for (int i = 0; i < 256; i++){
+      if (array[i] != 0){
+        sorted[leafCount++] = (array[i] << 8) | i;
+      }
+    }
+    Arrays.sort(sorted, 0, leafCount);
+    if (leafCount == 0){
+      return new BinaryTreeNode<Byte>();
+    }
+    
+    BinaryTreeNode<Byte>[] leaves = newNodes(leafCount);
+    for (int i = 0; i < leafCount; i++){
+      leaves[i] = new BinaryTreeNode<Byte>((byte)(sorted[i] & 0xFF), sorted[i] >>> 8);
+    }
+    BinaryTreeNode<Byte>[] joined = newNodes(leafCount);
+    int leafFront = 0, joinedFront = 0, joinedBack = 0;
+    
+    while ((leafCount - leafFront) + (joinedBack - joinedFront) > 1){
+      BinaryTreeNode<Byte>[] taken = newNodes(2);
+      for (int k = 0; k < 2; k++){ //Take the smaller front of the two queues, leaves first on ties
+        if ((joinedFront == joinedBack) || ((leafFront < leafCount) && (leaves[leafFront].getPriority() <= joined[joinedFront].getPriority()))){
+          taken[k] = leaves[leafFront++];
+        } else {
+          taken[k] = joined[joinedFront++];
+        }
+      }
+      BinaryTreeNode<Byte> parent = merge(taken[0], taken[1]);
+      parent.setPriority(taken[0].getPriority() + taken[1].getPriority());
+      joined[joinedBack++] = parent;
+    }
+    return (joinedBack > 0) ? joined[joinedBack - 1] : leaves[0];
+  }
+  
+  /** 
+   * newNodes
+   * Makes an array of BinaryTreeNodes, Java cannot make generic arrays directly
+   * @param length, the length of the array
+   * @return nodes, the empty array
+   */
+  @SuppressWarnings("unchecked")
+  private BinaryTreeNode<Byte>[] newNodes(int length){
+    return (BinaryTreeNode<Byte>[]) new BinaryTreeNode[length];
+  }
+  
+  /** 
+   * makeTree
+   * Creates a huffman tree from the frequencies with the chosen strategy
+   * @param array, a long array that has the frequecy of each character stored
+   * @param strategy, HEAP to use makeQueue and buildTree, or TWO_QUEUE to use buildTreeSorted
+   * @return root, a BinaryTreeNode that is the root of the huffman tree 
+   */
+  BinaryTreeNode<Byte> makeTree(long[] array, int strategy){
+    if (strategy == TWO_QUEUE){
+      return buildTreeSorted(array);
+    }
+    return buildTree(makeQueue(array));
+  }
+  
+  /** 
+   * makeCodeTable
+   * Makes the canonical code table from the code lengths of the flat huffman tree, or from limitLengths if the tree is deeper than allowed
+   * @param tree, the huffman tree, built from array
+   * @param array, a long array that has the frequecy of each character stored
+   * @param maxLength, the longest code allowed
+   * @return table, the canonical code table
+   */
+  CodeTable makeCodeTable(HuffmanTree tree, long[] array, int maxLength){
+    int[] lengths = new int[array.length];
+    if (tree.getLengths(lengths) <= maxLength){ //Huffman codes are already short enough
+      return new CodeTable(lengths);
+    }
+    return new CodeTable(limitLengths(array, maxLength));
+  }
+  
+  /** 
+   * makeCodeTable
+   * Makes the canonical code table from the huffman tree, or from limitLengths if the tree is deeper than allowed
+   * @param root, the root of the huffman tree
+   * @param array, a long array that has the frequecy of each character stored
+   * @param maxLength, the longest code allowed
+   * @return table, the canonical code table
+   */
+  CodeTable makeCodeTable(BinaryTreeNode<Byte> root, long[] array, int maxLength){
+    CodeTable table = new CodeTable(root);
+    if (table.getMaxLength() <= maxLength){ //Huffman codes are already short enough
+      return table.canonical();
+    }
+    return new CodeTable(limitLengths(array, maxLength));
+  }
+  
+  /** 
+   * limitLengths
+   * Finds the best code lengths that are no longer than maxLength with the package-merge algorithm.
+   * Every character starts as a coin worth its frequency. For each extra bit allowed, the cheapest coins are
+   * paired into packages and merged back with the original coins. The cheapest 2n-2 items of the last list
+   * are kept, and each character's code length is the number of kept items it is part of
+   * @param array, a long array that has the frequecy of each character stored
+   * @param maxLength, the longest code allowed
+   * @return lengths, the code length of each character, 0 if it is not in the data
+   */
+  int[] limitLengths(long[] array, int maxLength){
+    int[] lengths = new int[array.length];
+    int symbolBits = 32 - Integer.numberOfLeadingZeros(array.length - 1); //8 for bytes
+    //Sort the characters that exist by frequency, ties go to the smaller character
+    long[] sorted = new long[array.length];
+    int n = 0;
+    for (int i = 0; i < array.length; i++){
+      if (array[i] != 0){
+        sorted[n++] = (array[i] << symbolBits) | i;
+      }
+    }
+    Arrays.sort(sorted, 0, n);
+    if (n <= 1){ //One character still needs a one bit code
+      if (n == 1){
+        lengths[(int)(sorted[0] & ((1L << symbolBits) - 1))] = 1;
+      }
+      return lengths;
+    }
+    if ((maxLength < 31) && ((1 << maxLength) < n)){
+      throw new IllegalArgumentException(n + " characters do not fit in codes of " + maxLength + " bits");
+    }
+    
+    //Every item is a coin or a package of two items, stored in parallel arrays
+    int capacity = n + maxLength * 2 * n;
+    long[] weight = new long[capacity];
+    int[] symbol = new int[capacity]; //The character of a coin, -1 for a package
+    int[] left = new int[capacity];
+    int[] right = new int[capacity];
+    int items = 0;
+    int[] coins = new int[n];
+    for (int i = 0; i < n; i++){
+      weight[items] = sorted[i] >>> symbolBits;
+      symbol[items] = (int)(sorted[i] & ((1L << symbolBits) - 1));
+      coins[i] = items++;
+    }
+    
+    int[] list = coins.clone();
+    int listSize = n;
+    for (int level = 1; level < maxLength; level++){
+      //Pair up the list into packages, an odd item out is dropped
+      int[] packages = new int[listSize / 2];
+      for (int i = 0; i + 1 < listSize; i += 2){
+        weight[items] = weight[list[i]] + weight[list[i + 1]];
+        symbol[items] = -1;
+        left[items] = list[i];
+        right[items] = list[i + 1];
+        packages[i / 2] = items++;
+      }
+      //Merge the packages with the coins, coins first on ties
+      int[] merged = new int[n + packages.length];
+      int c = 0, p = 0, m = 0;
+      while ((c < n) || (p < packages.length)){
+        if ((p == packages.length) || ((c < n) && (weight[coins[c]] <= weight[packages[p]]))){
+          merged[m++] = coins[c++];
+        } else {
+          merged[m++] = packages[p++];
+        }
+      }
+      list = merged;
+      listSize = m;
+    }
+    
+    //Count how many kept items each character is part of
+    int[] stack = new int[capacity];
+    for (int i = 0; i < 2 * n - 2; i++){
+      int top = 0;
+      stack[top++] = list[i];
+      while (top > 0){
+        int item = stack[--top];
+        if (symbol[item] >= 0){
+          lengths[symbol[item]]++;
+        } else {
+          stack[top++] = left[item];
+          stack[top++] = right[item];
+        }
+      }
+    }
+    return lengths;
+  }
+  
+  /** 
+   * printEncoded
+   * Print the encoded data as packed bits 
+   * @param table, the code table made from the huffman tree
+   * @param fileName, the name of the file to be encoded
+   * @param out, the bit stream the encoded data is written to
+   */  
+  void printEncoded(CodeTable table, String fileName, BitOutputStream out) throws IOException{
+    MappedInput in = null;
+    byte [] buffer = BUFFERS.get();
+    
+    try {
+      in = new MappedInput(fileName); //read the original file
+      int count;
+      
+      while ((count = in.read(buffer)) > 0) {
+        encode(table, buffer, 0, count, out);
+      }  
+    } finally {
+      if (in != null) {
+        in.close();
+      } 
+    }
+  }
+  
+  /** 
+   * encode
+   * Adds the corresponding 1s and 0s
+   * @param table, the code table made from the huffman tree
+   * @param item, the byte being encoded as a number from 0 to 255
+   * @param out, the bit stream the code is written to
+   */  
+  public void encode(CodeTable table, int item, BitOutputStream out) throws IOException {
+    out.writeBits(table.getCode(item), table.getLength(item));
+  }
+  
+  /** 
+   * encode
+   * Adds the corresponding 1s and 0s for a range of bytes
+   * @param table, the code table made from the huffman tree
+   * @param data, the array holding the bytes being encoded
+   * @param start, the index of the first byte to encode
+   * @param end, the index after the last byte to encode
+   * @param out, the bit stream the codes are written to
+   */  
+  public void encode(CodeTable table, byte[] data, int start, int end, BitOutputStream out) throws IOException {
+    for (int i = start; i < end; i++){
+      int item = data[i] & 0xFF;
+      out.writeBits(table.getCode(item), table.getLength(item));
+    }
+  }
+  
+  /** 
+   * printTree
+   * Print the huffman tree on one line 
+   * @param array, the original array of frequencies corresponding to each character
+   * @return tree, a String with the huffman tree printed on one line
+   */    
+  String printTree(long[] array){
+    String tree = " ";
+    PriorityQ<String> queue = new PriorityQ<String>();
+    for (int i=0;i<256;i++){
+      if (array[i] != 0){ //Make sure the character actually exists in the data
+        queue.enqueue(Integer.toString(i),array[i]);                           
+      }
+    }
+    while(!queue.isEmpty()){
+      Node<String> node1 = queue.dequeue(); //Take first item out of node
+      if(queue.isEmpty()){ //If there is nothing left in queue return the first item taken out
+        tree = node1.getItem(); //Turn into string
+        return tree;
+      }
+      else{
+        Node<String> node2 = queue.dequeue(); //Take second
+        tree = "(" + node1.getItem() + " " + node2.getItem() + ")";
+        queue.enqueue(tree, node1.getPriority() + node2.getPriority());
+      }
+    }
+    return tree.substring(1);
+  }
+  
+  /** 
+   * printTree
+   * Print an already built huffman tree on one line, in the same format as printTree(long[])
+   * @param root, the root of the huffman tree
+   * @return tree, a String with the huffman tree printed on one line
+   */    
+  String printTree(BinaryTreeNode<Byte> root){
+    StringBuilder tree = new StringBuilder();
+    if ((root != null) && !(root.isLeaf() && (root.getItem() == null))){ //Empty tree prints as nothing
+      appendTree(root, tree);
+    }
+    return tree.toString();
+  }
+  
+  /** 
+   * appendTree
+   * Adds a node to the printed tree, a leaf is its character code and a parent is its two children in brackets
+   * @param node, the node being printed
+   * @param tree, the tree printed so far
+   */    
+  private void appendTree(BinaryTreeNode<Byte> node, StringBuilder tree){
+    if (node.isLeaf()){
+      tree.append(node.getItem() & 0xFF);
+      return;
+    }
+    tree.append('(');
+    appendTree(node.getLeft(), tree);
+    tree.append(' ');
+    appendTree(node.getRight(), tree);
+    tree.append(')');
+  }
+  
+  /** 
+   * printLengths
+   * Print the packed code lengths of a canonical code table, used in the header in place of the tree.
+   * It is a "C" and the number of packed bytes on one line, then the packed bytes, all as characters below 256
+   * @param table, the canonical code table
+   * @return lengths, the code lengths ready for the header, or nothing if there is no data
+   */    
+  String printLengths(CodeTable table){
+    if (table.isEmpty()){
+      return "";
+    }
+    byte[] packed = table.writeLengths();
+    StringBuilder lengths = new StringBuilder("C" + packed.length + "\r\n");
+    for (int i = 0; i < packed.length; i++){
+      lengths.append((char)(packed[i] & 0xFF));
+    }
+    return lengths.toString();
+  }
+  
+  /** 
+   * extraBits
+   * Finds the number of extra bits needed to make the data whole bytes
+   * @param frequency, the frequency of each character in the data
+   * @param table, the code table made from the huffman tree
+   * @return extra, the number of extra bits needed 
+   */
+  int extraBits(long[] frequency, CodeTable table){
+    long bits = 0;
+    for (int i = 0; i < 256; i++){ //The encoded data is the frequency of each character times the length of its code
+      bits += frequency[i] * table.getLength(i);
+    }
+    return (int)((8 - bits % 8) % 8);
+  }
+  
+  /** 
+   * isWorthCoding
+   * Checks from the counts if the codes and the table would take fewer bytes than the data as it is. The coded
+   * size is worked out exactly from the counts and the code lengths, so data that would not shrink is found
+   * without encoding any of it
+   * @param frequency, the frequency of each character in the data
+   * @param table, the code table the data would be coded with
+   * @param tableBytes, the number of bytes the table adds to the header, 0 if it is stored somewhere else
+   * @return Boolean, true if coding makes the data smaller
+   */
+  static boolean isWorthCoding(long[] frequency, CodeTable table, long tableBytes){
+    long bits = 0;
+    long size = 0;
+    for (int i = 0; i < 256; i++){
+      bits += frequency[i] * table.getLength(i);
+      size += frequency[i];
+    }
+    return (bits + 7) / 8 + tableBytes < size;
+  }
+  
+  /** 
+   * repeatedByte
+   * Finds the byte the data is made of if it is only ever one byte
+   * @param frequency, the frequency of each character in the data
+   * @return item, the byte from 0 to 255, or -1 if there is no data or more than one byte
+   */
+  static int repeatedByte(long[] frequency){
+    int item = -1;
+    for (int i = 0; i < 256; i++){
+      if (frequency[i] != 0){
+        if (item >= 0){
+          return -1;
+        }
+        item = i;
+      }
+    }
+    return item;
+  }
+  
+  /** 
+   * writeStored
+   * Copies a file after the header as it is, for data that coding would not make smaller
+   * @param fileName, the name of the file to copy
+   * @param size, the number of bytes counted in the file
+   * @param stream, the stream the MZIP data is written to
+   */
+  void writeStored(String fileName, long size, OutputStream stream) throws IOException{
+    MappedInput in = new MappedInput(fileName);
+    byte[] buffer = BUFFERS.get();
+    long copied = 0;
+    try{
+      int count;
+      while ((count = in.read(buffer)) > 0){
+        stream.write(buffer, 0, count);
+        copied += count;
+      }
+    } finally{
+      in.close();
+    }
+    if (copied != size){ //The length has to match what was written in the header
+      throw new IOException("The file " + fileName + " changed while it was being compressed");
+    }
+    stream.flush();
+  }
+  
+  /** 
+   * outToFile
+   * Makes the MZIP file with the compressed data
+   * @param file, the original file name of what was to be compressed
+   * @param fileExtension, the file extension of the original file
+   * @param tree, the huffman tree on a single line
+   * @param table, the code table made from the huffman tree
+   * @param extraBits, the number of extra bits that will be added onto the end of the data
+   */
+  void outToFile(String file, String fileExtension, String tree, CodeTable table, int extraBits) throws IOException{ 
+    BufferedOutputStream stream = new BufferedOutputStream(new FileOutputStream(file+".MZIP"));
+    
+    try{
+      writeMzip(file + fileExtension, file, fileExtension, tree, table, extraBits, stream);
+    } finally{
+      if (stream != null) {
+        stream.close();
+      }
+    }
+  }
+  
+  /** 
+   * writeMzip
+   * Writes the header and the encoded data of a file to a stream
+   * @param fileName, the name of the file to encode
+   * @param file, the file name stored in the header
+   * @param fileExtension, the file extension stored in the header
+   * @param tree, the code lengths or huffman tree for the second line
+   * @param table, the code table made from the huffman tree
+   * @param extraBits, the number of extra bits that will be added onto the end of the data
+   * @param stream, the stream the MZIP data is written to
+   */
+  void writeMzip(String fileName, String file, String fileExtension, String tree, CodeTable table, int extraBits, OutputStream stream) throws IOException{ 
+    writeHeader(stream, file, fileExtension, tree, Integer.toString(extraBits));
+    if(tree.length() > 0){ //If file has data, write the encoded data
+      //Read, encode and write at the same time
+      if (new EncodePipeline(this, table).encode(fileName, stream) != extraBits){ //Padding has to match what was written in the header
+        throw new IOException("The file " + fileName + " changed while it was being compressed");
+      }
+    }
+    stream.flush();
+  }
+  
+  /** 
+   * writeHeader
+   * Writes the lines at the start of an MZIP file: the file name and upper case extension, then if there is data,
+   * the code lengths or tree and the third line, each line ending with a carriage return and a new line
+   * @param stream, the stream the header is written to
+   * @param file, the original file name
+   * @param fileExtension, the file extension of the original file
+   * @param tree, the code lengths or huffman tree, nothing if the file is empty
+   * @param third, the third line, the number of extra bits or the block mode marker
+   */
+  void writeHeader(OutputStream stream, String file, String fileExtension, String tree, String third) throws IOException{ 
+    //Write the file name
+    for (int i =0; i<file.length(); i++){
+      stream.write(file.charAt(i));
+    }
+    fileExtension = fileExtension.toUpperCase();
+    for (int i = 0; i<fileExtension.length(); i++){
+      stream.write(fileExtension.charAt(i));
+    }
+    if(tree.length() > 0){ //If file has data, proceed to print the lines out
+      //New line
+      stream.write(13);
+      stream.write(10);
+      //Write the code lengths or the huffman tree on one line
+      for (int i = 0; i<tree.length(); i++){
+        stream.write(tree.charAt(i));
+      }
+      //New line
+      stream.write(13);
+      stream.write(10);
+      //Write the leftover bits or the block mode marker
+      for(int i=0; i<third.length();i++){
+        stream.write(third.charAt(i));
+      }
+      //New line
+      stream.write(13);
+      stream.write(10);
+    }
+  }
+}//end of Compression class
@@ -0,0 +1,389 @@
+/* CompressionServer.java
+ * Purpose: A local TCP service that compresses requests into MZIP data, with limits on connections, concurrent work and memory
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Protocol
+ * A connection carries any number of requests, one after another. A request is the name stored in the header
+ * (writeUTF), the number of bytes (writeLong) and the bytes. The reply is OK, the length of the MZIP data
+ * (writeLong) and the data, or ERROR and a message (writeUTF), after which the server closes the connection
+ */
+public class CompressionServer implements Closeable{
+  //Variables
+  static final int DEFAULT_PORT = 7641;
+  static final int OK = 0;
+  static final int ERROR = 1;
+  static final int DEFAULT_CONNECTIONS = 2048;
+  static final long DEFAULT_MEMORY = 256L << 20;
+  static final int DEFAULT_REQUEST_LIMIT = 16 << 20;
+  private static final int IDLE_TIMEOUT = 30000; //Milliseconds a connection may wait between reads before it is closed
+  private static final int MEMORY_WAIT = 1000; //Milliseconds a request waits for memory before it is turned away
+  private static final long THREAD_STACK_SIZE = 256 << 10; //Connection threads only block on reads, thousands of them need little stack
+  private static final int REQUEST_BUFFER_SIZE = 1 << 14; //Kept by each connection for small requests
+  private static final int POOLED_SIZE = 1 << 16; //Reply buffer kept by each encoder
+  private static final int MAX_POOLED_SIZE = 1 << 20; //Reply buffers that grew past this are dropped after the request
+  private ServerSocket server;
+  private ThreadPoolExecutor connections; //One thread per open connection, up to the limit
+  private Set<Socket> open; //The connections being served, so close can end reads that are blocked on them
+  private BlockingQueue<Encoder> encoders; //One per request compressed at once, fair so the wait is first come first served
+  private Semaphore memory; //Kilobytes of request and reply buffers that may be reserved at once
+  private int requestLimit;
+  private Dictionary dictionary;
+  private Thread acceptor;
+  private AtomicLong requests;
+  private AtomicLong rejected;
+
+  public static void main(String[] args){
+    System.exit(run(args));
+  }
+
+  /**
+   * run
+   * Runs the server until it is stopped: [-h host] [-p port] [-n connections] [-c concurrent] [-m memoryMB] [-l limitKB] [-d dictionary]
+   * @param args, the command line
+   * @return status, 1 if the server could not start, 2 if the command line was wrong
+   */
+  static int run(String[] args){
+    InetAddress host = InetAddress.getLoopbackAddress(); //Only this machine unless a host is given
+    int port = DEFAULT_PORT;
+    int maxConnections = DEFAULT_CONNECTIONS;
+    int maxConcurrent = Runtime.getRuntime().availableProcessors();
+    long maxMemory = DEFAULT_MEMORY;
+    int requestLimit = DEFAULT_REQUEST_LIMIT;
+    Dictionary dictionary = null;
+    try{
+      for (int i = 0; i < args.length; i++){
+        if (i + 1 >= args.length){
+          throw new IllegalArgumentException(args[i]);
+        } else if (args[i].equals("-h")){
+          host = InetAddress.getByName(args[++i]);
+        } else if (args[i].equals("-p")){
+          port = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-n")){
+          maxConnections = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-c")){
+          maxConcurrent = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-m")){
+          maxMemory = Long.parseLong(args[++i]) << 20;
+        } else if (args[i].equals("-l")){
+          requestLimit = Math.multiplyExact(Integer.parseInt(args[++i]), 1024);
+        } else if (args[i].equals("-d")){
+          dictionary = Dictionary.load(Path.of(args[++i]));
+        } else {
+          throw new IllegalArgumentException(args[i]);
+        }
+      }
+    } catch (IllegalArgumentException | ArithmeticException e){
+      System.err.println("Usage: CompressionServer [-h host] [-p port] [-n connections] [-c concurrent] [-m memoryMB] [-l limitKB] [-d dictionary]");
+      return 2;
+    } catch (IOException e){
+      System.err.println(e.getMessage());
+      return 1;
+    }
+    try{
+      CompressionServer server = new CompressionServer(maxConnections, maxConcurrent, maxMemory, requestLimit, dictionary);
+      server.start(new InetSocketAddress(host, port));
+      System.out.println("Listening on " + host.getHostAddress() + ":" + server.getPort());
+      server.acceptor.join();
+      return 0;
+    } catch (IllegalArgumentException | IOException e){
+      System.err.println(e.getMessage());
+      return 1;
+    } catch (InterruptedException e){
+      return 1;
+    }
+  }
+
+  /**
+   * CompressionServer
+   * Constructor that sets the limits, nothing is opened until start is called
+   * @param maxConnections, the number of connections served at once, more are turned away
+   * @param maxConcurrent, the number of requests compressed at once, more wait their turn
+   * @param maxMemory, the bytes of request and reply buffers reserved at once, requests that cannot reserve theirs are turned away
+   * @param requestLimit, the largest request in bytes
+   * @param dictionary, the dictionary every request is compressed with, or null to store a table in each reply
+   */
+  public CompressionServer(int maxConnections, int maxConcurrent, long maxMemory, int requestLimit, Dictionary dictionary){
+    if ((maxConnections < 1) || (maxConcurrent < 1) || (requestLimit < 0)){
+      throw new IllegalArgumentException("The server limits must be positive");
+    }
+    if (reservation(requestLimit) > maxMemory / 1024){
+      throw new IllegalArgumentException("The largest request does not fit in the memory limit");
+    }
+    AtomicInteger threads = new AtomicInteger();
+    //Idle threads are reused first and end after a minute, a new one is only made when none is free
+    this.connections = new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), task -> {
+      Thread thread = new Thread(null, task, "huffman-server-" + threads.incrementAndGet(), THREAD_STACK_SIZE);
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.open = ConcurrentHashMap.newKeySet();
+    this.encoders = new ArrayBlockingQueue<Encoder>(maxConcurrent, true);
+    for (int i = 0; i < maxConcurrent; i++){
+      encoders.add(new Encoder());
+    }
+    this.memory = new Semaphore((int)Math.min(maxMemory / 1024, Integer.MAX_VALUE), true);
+    this.requestLimit = requestLimit;
+    this.dictionary = dictionary;
+    this.requests = new AtomicLong();
+    this.rejected = new AtomicLong();
+  }
+
+  /**
+   * start
+   * Opens the server socket and starts accepting connections on a thread of its own
+   * @param address, the address and port to listen on, port 0 for any free port
+   */
+  public void start(InetSocketAddress address) throws IOException{
+    server = new ServerSocket();
+    server.setReuseAddress(true);
+    server.bind(address, 1024);
+    acceptor = new Thread(this::accept, "huffman-server-accept");
+    acceptor.start();
+  }
+
+  /**
+   * getPort
+   * Gets the port the server is listening on
+   * @return port, the local port
+   */
+  public int getPort(){
+    return server.getLocalPort();
+  }
+
+  /**
+   * getRequests
+   * Gets the number of requests that were compressed
+   * @return requests, the count so far
+   */
+  public long getRequests(){
+    return requests.get();
+  }
+
+  /**
+   * getRejected
+   * Gets the number of connections and requests that were turned away because a limit was reached
+   * @return rejected, the count so far
+   */
+  public long getRejected(){
+    return rejected.get();
+  }
+
+  /**
+   * close
+   * Stops accepting connections and closes the ones that are open. Closing a socket is what ends a read blocked
+   * on it, interrupting the thread does not
+   */
+  public void close() throws IOException{
+    server.close();
+    connections.shutdownNow();
+    for (Socket socket : open){
+      closeQuietly(socket);
+    }
+  }
+
+  /**
+   * accept
+   * Hands every new connection to a thread of the pool, or turns it away if every thread is busy
+   */
+  private void accept(){
+    while (!server.isClosed()){
+      Socket socket;
+      try{
+        socket = server.accept();
+      } catch (IOException e){ //Closed
+        return;
+      }
+      open.add(socket);
+      if (server.isClosed()){ //close may have gone through the open connections before this one was added
+        open.remove(socket);
+        closeQuietly(socket);
+        return;
+      }
+      try{
+        connections.execute(() -> serve(socket));
+      } catch (RejectedExecutionException e){
+        open.remove(socket);
+        rejected.incrementAndGet();
+        refuse(socket, "Too many connections");
+      }
+    }
+  }
+
+  /**
+   * refuse
+   * Sends an error and closes a connection
+   * @param socket, the connection
+   * @param message, the reason
+   */
+  private void refuse(Socket socket, String message){
+    try{
+      DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      out.writeByte(ERROR);
+      out.writeUTF(message);
+      out.flush();
+    } catch (IOException e){ //The client is gone already
+    } finally{
+      closeQuietly(socket);
+    }
+  }
+
+  /**
+   * serve
+   * Answers the requests of one connection until the client closes it
+   * @param socket, the connection
+   */
+  private void serve(Socket socket){
+    byte[] buffer = new byte[REQUEST_BUFFER_SIZE];
+    try{
+      socket.setTcpNoDelay(true); //Replies are small and sent in one write, do not hold them back
+      socket.setSoTimeout(IDLE_TIMEOUT);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 8192));
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 8192));
+      while (true){
+        String name;
+        try{
+          name = in.readUTF();
+        } catch (EOFException e){ //No more requests
+          return;
+        }
+        long length = in.readLong();
+        if ((length < 0) || (length > requestLimit)){
+          reply(out, "The request is larger than " + requestLimit + " bytes");
+          return;
+        }
+        int kilobytes = reservation((int)length);
+        if (!memory.tryAcquire(kilobytes, MEMORY_WAIT, TimeUnit.MILLISECONDS)){
+          rejected.incrementAndGet();
+          reply(out, "Out of memory for requests, try again later");
+          return;
+        }
+        try{
+          byte[] data = (length <= buffer.length) ? buffer : new byte[(int)length]; //Only kept for this request
+          in.readFully(data, 0, (int)length);
+          Encoder encoder = encoders.take(); //Read the whole request first, so a slow client never holds an encoder
+          try{
+            encoder.response.reset();
+            encoder.compression.compressBytes(data, (int)length, Compression.splitName(name), dictionary, encoder.response, encoder.bits);
+            out.writeByte(OK);
+            out.writeLong(encoder.response.size());
+            encoder.response.writeTo(out);
+          } finally{
+            encoder.trim();
+            encoders.add(encoder);
+          }
+          out.flush();
+          requests.incrementAndGet();
+        } finally{
+          memory.release(kilobytes);
+        }
+      }
+    } catch (SocketTimeoutException | SocketException | EOFException e){ //Idle, reset or cut off in the middle of a request
+    } catch (IOException e){
+      try{
+        reply(new DataOutputStream(socket.getOutputStream()), e.getMessage());
+      } catch (IOException f){
+      }
+    } catch (InterruptedException e){ //The server is closing
+    } finally{
+      open.remove(socket);
+      closeQuietly(socket);
+    }
+  }
+
+  /**
+   * reply
+   * Sends an error, the connection is closed after it
+   * @param out, the stream to the client
+   * @param message, the reason
+   */
+  private void reply(DataOutputStream out, String message) throws IOException{
+    out.writeByte(ERROR);
+    out.writeUTF((message == null) ? "Compression failed" : message);
+    out.flush();
+  }
+
+  /**
+   * reservation
+   * Finds the memory a request reserves: the request itself, and the reply, which is never much larger
+   * @param length, the number of bytes in the request
+   * @return kilobytes, the amount to reserve
+   */
+  private static int reservation(int length){
+    return (int)((2L * length + 1024 + 1023) / 1024); //Room for the header in the reply
+  }
+
+  /**
+   * closeQuietly
+   * Closes a connection, ignoring errors
+   * @param socket, the connection
+   */
+  private static void closeQuietly(Socket socket){
+    try{
+      socket.close();
+    } catch (IOException e){
+    }
+  }
+
+  /* Encoder
+   * The table builder, reply buffer and bit writer of one request being compressed, kept from request to request
+   * so small requests allocate almost nothing. There are as many as requests compressed at once
+   */
+  private static class Encoder{
+    private Compression<String> compression;
+    private ByteArrayOutputStream response;
+    private BitOutputStream bits; //Writes into response
+
+    /**
+     * Encoder
+     * Constructor that makes the reply buffer at its pooled size
+     */
+    Encoder(){
+      this.compression = new Compression<String>();
+      this.response = new ByteArrayOutputStream(POOLED_SIZE);
+      this.bits = new BitOutputStream(response);
+    }
+
+    /**
+     * trim
+     * Drops a reply buffer that grew too large to keep, so an idle encoder only holds its pooled size
+     */
+    void trim(){
+      if (response.size() > MAX_POOLED_SIZE){
+        response = new ByteArrayOutputStream(POOLED_SIZE);
+        bits = new BitOutputStream(response);
+      }
+    }
+  }
+}//end of CompressionServer class
@@ -0,0 +1,443 @@
+/* ContextModel.java
+ * Purpose: Codes every byte with a table chosen by the byte before it, with contexts that follow each other alike sharing one table
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+class ContextModel{
+  //Variables
+  static final int CONTEXTS = 256; //One for each value of the byte before
+  static final int MAX_TABLES = 64;
+  private static final int FIRST_CONTEXT = 0; //The first byte of the data is coded as if a 0 came before it
+  private static final int PRIMARY_BITS = 8; //Codes after a context are short, and small decode tables keep all of them in the cache
+  private static final int LONG_RUN = 4; //Runs of contexts with the same table at least this long take a second byte in the map
+  private static final double[] N_LOG_N = new double[1 << 12]; //n log2 n of small counts, clustering looks up millions of them
+  private long[] counts; //How often each byte follows each context, indexed by (context << 8) | byte
+  private int previous; //Byte before the next one counted or coded
+  private int[] map; //Table of each context
+  private CodeTable[] tables; //Tables of the clusters, in the order they are stored
+  private CodeTable[] contextTables; //Table of each context, so coding is one lookup more than with one table
+  private DecodeTable[] decodeTables;
+
+  static{
+    for (int n = 1; n < N_LOG_N.length; n++){
+      N_LOG_N[n] = n * (Math.log(n) / Math.log(2));
+    }
+  }
+
+  /**
+   * ContextModel
+   * Constructor that starts with every count at 0, ready for count and then build
+   */
+  ContextModel(){
+    this.counts = new long[CONTEXTS * 256];
+    this.previous = FIRST_CONTEXT;
+  }
+
+  /**
+   * ContextModel
+   * Constructor for a model read from a header, ready to decode
+   * @param map, the table of each context
+   * @param tables, the code tables
+   */
+  private ContextModel(int[] map, CodeTable[] tables){
+    this.map = map;
+    this.tables = tables;
+    this.previous = FIRST_CONTEXT;
+    this.decodeTables = new DecodeTable[CONTEXTS];
+    DecodeTable[] built = new DecodeTable[tables.length];
+    for (int i = 0; i < tables.length; i++){
+      built[i] = new DecodeTable(tables[i], PRIMARY_BITS);
+    }
+    for (int context = 0; context < CONTEXTS; context++){
+      decodeTables[context] = built[map[context]];
+    }
+  }
+
+  /**
+   * count
+   * Counts a range of bytes, each in the context of the byte before it, carrying on from the last range
+   * @param data, the array holding the bytes
+   * @param start, the index of the first byte to count
+   * @param end, the index after the last byte to count
+   */
+  public void count(byte[] data, int start, int end){
+    long[] c = counts;
+    int context = previous;
+    for (int i = start; i < end; i++){
+      int item = data[i] & 0xFF;
+      c[(context << 8) | item]++;
+      context = item;
+    }
+    previous = context;
+  }
+
+  /**
+   * isEmpty
+   * Checks if no bytes were counted
+   * @return Boolean, true if every count is 0
+   */
+  public boolean isEmpty(){
+    for (int i = 0; i < counts.length; i++){
+      if (counts[i] != 0){
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * build
+   * Groups the contexts into clusters, then makes one table for each cluster. Starting with a cluster for
+   * every context that was seen, the two clusters that cost the fewest bits to share a table are joined
+   * until joining any more would cost more bits of data than the table it saves, or until there are MAX_TABLES.
+   * Contexts that were never seen join the cluster of the context before them, so the map has long runs
+   */
+  public void build(){
+    Compression<String> compression = new Compression<String>();
+    long[][] histograms = new long[CONTEXTS][];
+    double[] cost = new double[CONTEXTS]; //Bits of data plus bits of table of each cluster
+    int[] cluster = new int[CONTEXTS]; //Cluster each context belongs to, the index of its first context, -1 if never seen
+    int clusters = 0;
+    for (int context = 0; context < CONTEXTS; context++){
+      long[] histogram = new long[256];
+      System.arraycopy(counts, context << 8, histogram, 0, 256);
+      cluster[context] = -1;
+      if (total(histogram) > 0){
+        histograms[context] = histogram;
+        cost[context] = cost(histogram);
+        cluster[context] = context;
+        clusters++;
+      }
+    }
+
+    //Extra bits of joining each pair, only the upper half is used
+    double[][] penalty = new double[CONTEXTS][CONTEXTS];
+    for (int i = 0; i < CONTEXTS; i++){
+      for (int j = i + 1; (histograms[i] != null) && (j < CONTEXTS); j++){
+        if (histograms[j] != null){
+          penalty[i][j] = joinedCost(histograms[i], histograms[j]) - cost[i] - cost[j];
+        }
+      }
+    }
+    while (clusters > 1){
+      int bestI = -1;
+      int bestJ = -1;
+      for (int i = 0; i < CONTEXTS; i++){
+        for (int j = i + 1; (histograms[i] != null) && (j < CONTEXTS); j++){
+          if ((histograms[j] != null) && ((bestI < 0) || (penalty[i][j] < penalty[bestI][bestJ]))){
+            bestI = i;
+            bestJ = j;
+          }
+        }
+      }
+      if ((penalty[bestI][bestJ] >= 0) && (clusters <= MAX_TABLES)){ //Every join left makes the output bigger
+        break;
+      }
+      for (int symbol = 0; symbol < 256; symbol++){ //Join j into i
+        histograms[bestI][symbol] += histograms[bestJ][symbol];
+      }
+      histograms[bestJ] = null;
+      cost[bestI] = cost(histograms[bestI]);
+      for (int context = 0; context < CONTEXTS; context++){
+        if (cluster[context] == bestJ){
+          cluster[context] = bestI;
+        }
+      }
+      clusters--;
+      for (int k = 0; k < CONTEXTS; k++){
+        if ((k != bestI) && (histograms[k] != null)){
+          int i = Math.min(k, bestI);
+          int j = Math.max(k, bestI);
+          penalty[i][j] = joinedCost(histograms[i], histograms[j]) - cost[i] - cost[j];
+        }
+      }
+    }
+
+    //Number the clusters in the order they first appear and make their tables
+    map = new int[CONTEXTS];
+    tables = new CodeTable[Math.max(clusters, 1)];
+    int[] number = new int[CONTEXTS];
+    int made = 0;
+    HuffmanTree huffTree = new HuffmanTree();
+    for (int context = 0; context < CONTEXTS; context++){
+      int first = cluster[context];
+      if (first < 0){ //Never seen, so any table will do
+        map[context] = (context > 0) ? map[context - 1] : 0;
+        continue;
+      }
+      if (first == context){
+        number[first] = made;
+        tables[made++] = compression.makeCodeTable(huffTree.build(histograms[first]), histograms[first], Compression.MAX_CODE_LENGTH);
+      }
+      map[context] = number[first];
+    }
+    if (made == 0){ //No data, one table with a code for every byte keeps the header valid
+      long[] flat = new long[256];
+      Arrays.fill(flat, 1);
+      tables[made++] = compression.makeCodeTable(huffTree.build(flat), flat, Compression.MAX_CODE_LENGTH);
+    }
+    contextTables = new CodeTable[CONTEXTS];
+    for (int context = 0; context < CONTEXTS; context++){
+      contextTables[context] = tables[map[context]];
+    }
+    previous = FIRST_CONTEXT;
+  }
+
+  /**
+   * total
+   * Adds up a histogram
+   * @param histogram, the counts of each byte
+   * @return total, the number of bytes counted
+   */
+  private static long total(long[] histogram){
+    long total = 0;
+    for (int i = 0; i < histogram.length; i++){
+      total += histogram[i];
+    }
+    return total;
+  }
+
+  /**
+   * cost
+   * Estimates the bits a cluster costs: its data coded at its entropy, plus its table in the header, which
+   * takes about a byte for each byte with a code
+   * @param histogram, the counts of each byte in the cluster
+   * @return bits, the estimated size of the cluster in bits
+   */
+  private static double cost(long[] histogram){
+    double bits = 16;
+    long total = 0;
+    for (int i = 0; i < 256; i++){
+      long count = histogram[i];
+      if (count != 0){
+        total += count;
+        bits += 8 - nLogN(count);
+      }
+    }
+    return bits + nLogN(total);
+  }
+
+  /**
+   * joinedCost
+   * Estimates the bits two clusters cost with one table, without adding up their histograms first
+   * @param a, the counts of each byte in the first cluster
+   * @param b, the counts of each byte in the second cluster
+   * @return bits, the estimated size of the joined cluster in bits
+   */
+  private static double joinedCost(long[] a, long[] b){
+    double bits = 16;
+    long total = 0;
+    for (int i = 0; i < 256; i++){
+      long count = a[i] + b[i];
+      if (count != 0){
+        total += count;
+        bits += 8 - nLogN(count);
+      }
+    }
+    return bits + nLogN(total);
+  }
+
+  /**
+   * nLogN
+   * Finds a count times its base 2 logarithm
+   * @param n, a count above 0
+   * @return bits, n log2 n
+   */
+  private static double nLogN(long n){
+    if (n < N_LOG_N.length){
+      return N_LOG_N[(int)n];
+    }
+    return n * (Math.log(n) / Math.log(2));
+  }
+
+  /**
+   * getTables
+   * Gets the number of tables the contexts were grouped into
+   * @return count, from 1 to MAX_TABLES
+   */
+  public int getTables(){
+    return tables.length;
+  }
+
+  /**
+   * codedBits
+   * Finds the number of bits the data codes into with the tables, once build has made them
+   * @return bits, the length of the coded data without padding
+   */
+  public long codedBits(){
+    long bits = 0;
+    for (int context = 0; context < CONTEXTS; context++){
+      CodeTable table = contextTables[context];
+      for (int item = 0; item < 256; item++){
+        bits += counts[(context << 8) | item] * table.getLength(item);
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * extraBits
+   * Finds the number of extra bits needed to make the coded data whole bytes
+   * @return extra, the number of extra bits needed
+   */
+  public int extraBits(){
+    return (int)((8 - codedBits() % 8) % 8);
+  }
+
+  /**
+   * getFrequency
+   * Adds up the counts of every context, giving how often each byte appears
+   * @return frequency, the count of each byte from 0 to 255
+   */
+  public long[] getFrequency(){
+    long[] frequency = new long[256];
+    for (int i = 0; i < counts.length; i++){
+      frequency[i & 0xFF] += counts[i];
+    }
+    return frequency;
+  }
+
+
+  /**
+   * encode
+   * Adds the codes of a range of bytes, each from the table of the byte before it, carrying on from the last range
+   * @param data, the array holding the bytes being encoded
+   * @param start, the index of the first byte to encode
+   * @param end, the index after the last byte to encode
+   * @param out, the bit stream the codes are written to
+   */
+  public void encode(byte[] data, int start, int end, BitOutputStream out) throws IOException{
+    CodeTable[] t = contextTables;
+    int context = previous;
+    for (int i = start; i < end; i++){
+      int item = data[i] & 0xFF;
+      CodeTable table = t[context];
+      out.writeBits(table.getCode(item), table.getLength(item));
+      context = item;
+    }
+    previous = context;
+  }
+
+  /**
+   * write
+   * Writes the model after the header lines: the number of tables less one, then the map as one byte for every run
+   * of contexts with the same table, the table number with the run less one in the top two bits. A 3 there means
+   * the next byte holds the run less four. Then every table as the length of its packed code lengths less one
+   * and the packed code lengths
+   * @param out, the stream the model is written to
+   */
+  public void write(OutputStream out) throws IOException{
+    out.write(tables.length - 1);
+    for (int context = 0; context < CONTEXTS; ){
+      int run = 1;
+      while ((context + run < CONTEXTS) && (map[context + run] == map[context])){
+        run++;
+      }
+      out.write((Math.min(run, LONG_RUN) - 1) << 6 | map[context]);
+      if (run >= LONG_RUN){
+        out.write(run - LONG_RUN);
+      }
+      context += run;
+    }
+    for (CodeTable table : tables){
+      byte[] packed = table.writeLengths();
+      out.write(packed.length - 1);
+      out.write(packed);
+    }
+  }
+
+  /**
+   * read
+   * Reads a model written by write
+   * @param in, the MZIP data, positioned after the header lines
+   * @return model, the model, ready to decode
+   */
+  static ContextModel read(InputStream in) throws IOException{
+    int count = readByte(in) + 1;
+    if (count > MAX_TABLES){
+      throw new IOException("The context map has too many tables");
+    }
+    int[] map = new int[CONTEXTS];
+    for (int context = 0; context < CONTEXTS; ){
+      int b = readByte(in);
+      int run = (b >>> 6) + 1;
+      if (run == LONG_RUN){
+        run += readByte(in);
+      }
+      if (((b & 0x3F) >= count) || (context + run > CONTEXTS)){
+        throw new IOException("The context map is not valid");
+      }
+      for (int k = 0; k < run; k++){
+        map[context++] = b & 0x3F;
+      }
+    }
+    CodeTable[] tables = new CodeTable[count];
+    for (int i = 0; i < count; i++){
+      byte[] packed = new byte[readByte(in) + 1];
+      for (int k = 0; k < packed.length; k++){
+        packed[k] = (byte)readByte(in);
+      }
+      try{
+        tables[i] = CodeTable.readLengths(packed);
+      } catch (IllegalArgumentException e){
+        throw new IOException("The code lengths of a context are not valid", e);
+      }
+      if (tables[i].isEmpty()){
+        throw new IOException("The code lengths of a context are not valid");
+      }
+    }
+    return new ContextModel(map, tables);
+  }
+
+  /**
+   * readByte
+   * Reads one byte of the model
+   * @param in, the MZIP data
+   * @return b, the byte from 0 to 255
+   */
+  private static int readByte(InputStream in) throws IOException{
+    int b = in.read();
+    if (b == -1){
+      throw new IOException("The context tables in the header are cut off");
+    }
+    return b;
+  }
+
+  /**
+   * decodeToEnd
+   * Decodes bytes until the stream ends, each with the table of the byte before it
+   * @param in, the bit stream of encoded data
+   * @param extraBits, the number of 0s at the end of the stream
+   * @param out, the stream the decoded bytes are written to
+   */
+  public void decodeToEnd(BitInputStream in, int extraBits, OutputStream out) throws IOException{
+    DecodeTable[] t = decodeTables;
+    byte[] buffer = new byte[1 << 16];
+    int position = 0;
+    int context = previous;
+    long remaining;
+    while ((remaining = in.remainingBits(extraBits)) > 0){
+      int item = t[context].decode(in);
+      buffer[position++] = (byte)item;
+      context = item;
+      if (position == buffer.length){
+        out.write(buffer, 0, position);
+        position = 0;
+      }
+    }
+    previous = context;
+    out.write(buffer, 0, position);
+    if (remaining != 0){
+      throw new IOException("The encoded data does not end on a whole code");
+    }
+  }
+}//end of ContextModel class
@@ -0,0 +1,309 @@
+/* DecodeTable.java
+ * Purpose: Lookup tables that turn huffman codes back into bytes several bits at a time
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+class DecodeTable{
+  //Variables
+  private static final int MAX_PRIMARY_BITS = 11; //Bits looked up at once for the first step
+  private static final int SUB_BITS = 6; //Bits looked up at once for every step after the first
+  private static final int LINK = 0x80000000; //Marks an entry that points to another table
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final int ROUND = 3; //Codes read from every stream between refills, a refill leaves at least 56 bits
+  private static final int MAX_ROUND_LENGTH = Math.min(56 / ROUND, MAX_PRIMARY_BITS + SUB_BITS); //Longest code the rounds work for, in at most two steps
+  private int[] table; //All the tables one after another, the first one starts at 0
+  private int next; //Where the next table will start
+  private int primaryBits;
+  private int maxLength;
+
+  /**
+   * DecodeTable
+   * Constructor that builds the lookup tables from the code of every byte
+   * An entry is either 0 (no code), a link to the next table, or the symbol and the bits its code uses in that table
+   * @param codes, the code table the data was encoded with
+   */
+  DecodeTable(CodeTable codes){
+    this(codes, MAX_PRIMARY_BITS);
+  }
+
+  /**
+   * DecodeTable
+   * Constructor that builds the lookup tables with a smaller first table, for when many tables are used at once
+   * and all of them have to stay in the cache
+   * @param codes, the code table the data was encoded with
+   * @param maxPrimaryBits, the most bits looked up at once for the first step, from 1 to 11
+   */
+  DecodeTable(CodeTable codes, int maxPrimaryBits){
+    this.maxLength = codes.getMaxLength();
+    this.primaryBits = Math.max(1, Math.min(maxLength, Math.min(maxPrimaryBits, MAX_PRIMARY_BITS)));
+    this.table = new int[(1 << primaryBits) + (1 << SUB_BITS) * 16];
+    this.next = 1 << primaryBits;
+    for (int i = 0; i < codes.size(); i++){
+      if (codes.getLength(i) > 0){
+        insert(i, codes.getCode(i), codes.getLength(i));
+      }
+    }
+  }
+
+  /**
+   * insert
+   * Adds the code of one byte, making new tables for the bits that do not fit in the first one
+   * @param symbol, the byte as a number from 0 to 255
+   * @param code, the bits of the code right aligned
+   * @param length, the number of bits in the code
+   */
+  private void insert(int symbol, long code, int length){
+    int base = 0;
+    int bits = primaryBits;
+    int left = length; //Bits of the code not looked up yet
+    while (left > bits){
+      int index = (int)((code >>> (left - bits)) & ((1 << bits) - 1));
+      int entry = table[base + index];
+      if (entry == 0){ //First code with this prefix, make a table for the rest of it
+        if (next + (1 << SUB_BITS) > table.length){
+          table = Arrays.copyOf(table, table.length * 2);
+        }
+        entry = LINK | next;
+        table[base + index] = entry;
+        next += 1 << SUB_BITS;
+      }
+      base = entry & ~LINK;
+      left -= bits;
+      bits = SUB_BITS;
+    }
+    //Every index that starts with the rest of the code decodes to this byte
+    int first = (int)((code & ((1L << left) - 1)) << (bits - left));
+    int count = 1 << (bits - left);
+    for (int i = 0; i < count; i++){
+      table[base + first + i] = (left << 16) | symbol;
+    }
+  }
+
+  /**
+   * decode
+   * Reads one code from the bit stream
+   * @param in, the bit stream of encoded data
+   * @return symbol, the decoded byte as a number from 0 to 255, or a symbol of a larger alphabet
+   */
+  public int decode(BitInputStream in) throws IOException{
+    int bits = primaryBits;
+    int entry = table[in.peekBits(bits)];
+    while (entry < 0){ //The code is longer than this table, keep going in the next one
+      in.skipBits(bits);
+      bits = SUB_BITS;
+      entry = table[(entry & ~LINK) + in.peekBits(bits)];
+    }
+    if (entry == 0){
+      throw new IOException("The encoded data has a code that is not in the huffman tree");
+    }
+    in.skipBits(entry >>> 16);
+    return entry & 0xFFFF;
+  }
+
+  /**
+   * decodeInterleaved
+   * Decodes bytes that were coded into several streams in turn: byte i is in stream i % streams. Each stream
+   * has its own bit buffer, so the lookups of different streams do not wait for each other and the processor
+   * works on all of them at once. A refill loads eight bytes at a time and leaves at least 56 bits, enough
+   * for three codes from every stream before the next refill
+   * @param data, the array holding the streams one after another
+   * @param starts, the index where each stream starts
+   * @param ends, the index after the last byte of each stream
+   * @param decoded, the array the bytes are decoded into, as many as it holds
+   */
+  public void decodeInterleaved(byte[] data, int[] starts, int[] ends, byte[] decoded) throws IOException{
+    int streams = starts.length;
+    if (maxLength > MAX_ROUND_LENGTH){
+      throw new IOException("The codes are too long to decode interleaved");
+    }
+    long[] buffers = new long[streams]; //Bits waiting to be used, the next one is the top bit
+    int[] counts = new int[streams];
+    int[] positions = starts.clone();
+    int length = decoded.length;
+    int fast = length - ROUND * streams; //Rounds up to here have every byte of the round to decode
+    int i = (streams == 4) ? decodeFour(data, ends, decoded, buffers, counts, positions) : 0;
+    while (i <= fast){
+      for (int s = 0; s < streams; s++){
+        int p = positions[s];
+        if (p + 8 <= ends[s]){ //Load eight bytes, keep the whole bytes that fit
+          int count = counts[s];
+          buffers[s] |= (long)LONGS.get(data, p) >>> count;
+          int bytes = (63 - count) >>> 3;
+          positions[s] = p + bytes;
+          counts[s] = count + (bytes << 3);
+        } else {
+          refill(data, s, ends[s], buffers, counts, positions);
+        }
+      }
+      for (int round = 0; round < ROUND; round++){
+        for (int s = 0; s < streams; s++){
+          long buffer = buffers[s];
+          int entry = table[(int)(buffer >>> (64 - primaryBits))];
+          if (entry < 0){ //Longer than the first table, one more step is always enough with these lengths
+            buffer <<= primaryBits;
+            counts[s] -= primaryBits;
+            entry = table[(entry & ~LINK) + (int)(buffer >>> (64 - SUB_BITS))];
+          }
+          if (entry == 0){
+            throw new IOException("The encoded data has a code that is not in the huffman tree");
+          }
+          int used = entry >>> 16;
+          buffers[s] = buffer << used;
+          counts[s] -= used;
+          decoded[i++] = (byte)entry;
+        }
+      }
+    }
+    for (; i < length; i++){ //The last bytes one at a time
+      int s = i % streams;
+      refill(data, s, ends[s], buffers, counts, positions);
+      long buffer = buffers[s];
+      int entry = table[(int)(buffer >>> (64 - primaryBits))];
+      if (entry < 0){
+        buffer <<= primaryBits;
+        counts[s] -= primaryBits;
+        entry = table[(entry & ~LINK) + (int)(buffer >>> (64 - SUB_BITS))];
+      }
+      if (entry == 0){
+        throw new IOException("The encoded data has a code that is not in the huffman tree");
+      }
+      int used = entry >>> 16;
+      buffers[s] = buffer << used;
+      counts[s] -= used;
+      decoded[i] = (byte)entry;
+    }
+    for (int s = 0; s < streams; s++){ //Every stream has to end in its last byte, on the padding
+      long bitsUsed = (long)(positions[s] - starts[s]) * 8 - counts[s];
+      long size = (long)(ends[s] - starts[s]) * 8;
+      if ((bitsUsed > size) || (bitsUsed <= size - 8)){
+        throw new IOException("A stream of the block does not decode to its length");
+      }
+    }
+  }
+
+  /**
+   * decodeFour
+   * The rounds of decodeInterleaved for four streams, with every bit buffer in a local variable so they stay in
+   * registers. Stops when fewer than a round of bytes are left or a stream is within eight bytes of its end,
+   * and leaves the state of every stream in the arrays for decodeInterleaved to finish
+   * @param data, the array holding the streams one after another
+   * @param ends, the index after the last byte of each stream
+   * @param decoded, the array the bytes are decoded into
+   * @param buffers, the bit buffer of every stream
+   * @param counts, the number of bits in every buffer
+   * @param positions, the index of the next byte of every stream
+   * @return i, the number of bytes decoded
+   */
+  private int decodeFour(byte[] data, int[] ends, byte[] decoded, long[] buffers, int[] counts, int[] positions) throws IOException{
+    int[] t = table;
+    int bits = primaryBits;
+    long b0 = 0, b1 = 0, b2 = 0, b3 = 0;
+    int c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+    int p0 = positions[0], p1 = positions[1], p2 = positions[2], p3 = positions[3];
+    int last0 = ends[0] - 8, last1 = ends[1] - 8, last2 = ends[2] - 8, last3 = ends[3] - 8; //Last index eight bytes can be loaded from
+    int i = 0;
+    while ((i + ROUND * 4 <= decoded.length) && (p0 <= last0) && (p1 <= last1) && (p2 <= last2) && (p3 <= last3)){
+      b0 |= (long)LONGS.get(data, p0) >>> c0;
+      int bytes = (63 - c0) >>> 3;
+      p0 += bytes;
+      c0 += bytes << 3;
+      b1 |= (long)LONGS.get(data, p1) >>> c1;
+      bytes = (63 - c1) >>> 3;
+      p1 += bytes;
+      c1 += bytes << 3;
+      b2 |= (long)LONGS.get(data, p2) >>> c2;
+      bytes = (63 - c2) >>> 3;
+      p2 += bytes;
+      c2 += bytes << 3;
+      b3 |= (long)LONGS.get(data, p3) >>> c3;
+      bytes = (63 - c3) >>> 3;
+      p3 += bytes;
+      c3 += bytes << 3;
+      for (int round = 0; round < ROUND; round++){
+        int e0 = t[(int)(b0 >>> (64 - bits))];
+        if (e0 < 0){
+          b0 <<= bits;
+          c0 -= bits;
+          e0 = t[(e0 & ~LINK) + (int)(b0 >>> (64 - SUB_BITS))];
+        }
+        int e1 = t[(int)(b1 >>> (64 - bits))];
+        if (e1 < 0){
+          b1 <<= bits;
+          c1 -= bits;
+          e1 = t[(e1 & ~LINK) + (int)(b1 >>> (64 - SUB_BITS))];
+        }
+        int e2 = t[(int)(b2 >>> (64 - bits))];
+        if (e2 < 0){
+          b2 <<= bits;
+          c2 -= bits;
+          e2 = t[(e2 & ~LINK) + (int)(b2 >>> (64 - SUB_BITS))];
+        }
+        int e3 = t[(int)(b3 >>> (64 - bits))];
+        if (e3 < 0){
+          b3 <<= bits;
+          c3 -= bits;
+          e3 = t[(e3 & ~LINK) + (int)(b3 >>> (64 - SUB_BITS))];
+        }
+        if (((e0 - 1) | (e1 - 1) | (e2 - 1) | (e3 - 1)) < 0){ //One of them is 0
+          throw new IOException("The encoded data has a code that is not in the huffman tree");
+        }
+        b0 <<= e0 >>> 16;
+        c0 -= e0 >>> 16;
+        b1 <<= e1 >>> 16;
+        c1 -= e1 >>> 16;
+        b2 <<= e2 >>> 16;
+        c2 -= e2 >>> 16;
+        b3 <<= e3 >>> 16;
+        c3 -= e3 >>> 16;
+        decoded[i] = (byte)e0;
+        decoded[i + 1] = (byte)e1;
+        decoded[i + 2] = (byte)e2;
+        decoded[i + 3] = (byte)e3;
+        i += 4;
+      }
+    }
+    buffers[0] = b0;
+    buffers[1] = b1;
+    buffers[2] = b2;
+    buffers[3] = b3;
+    counts[0] = c0;
+    counts[1] = c1;
+    counts[2] = c2;
+    counts[3] = c3;
+    positions[0] = p0;
+    positions[1] = p1;
+    positions[2] = p2;
+    positions[3] = p3;
+    return i;
+  }
+
+  /**
+   * refill
+   * Tops up the bit buffer of a stream a byte at a time, adding 0s once its bytes run out
+   * @param data, the array holding the streams
+   * @param s, the number of the stream
+   * @param end, the index after the last byte of the stream
+   * @param buffers, the bit buffer of every stream
+   * @param counts, the number of bits in every buffer
+   * @param positions, the index of the next byte of every stream, which keeps going past the end for the 0s
+   */
+  private static void refill(byte[] data, int s, int end, long[] buffers, int[] counts, int[] positions){
+    while (counts[s] <= 56){
+      int p = positions[s]++;
+      if (p < end){
+        buffers[s] |= (long)(data[p] & 0xFF) << (56 - counts[s]);
+      }
+      counts[s] += 8;
+    }
+  }
+}//end of DecodeTable class
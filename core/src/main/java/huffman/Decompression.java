@@ -0,0 +1,771 @@
+/* Decompression.java
+ * Purpose: Decompresses an MZIP file made by Compression back into the original file
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.RandomAccessFile;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class Decompression {
+  //Variables
+  private int headerLength; //Number of bytes read by readLine so far
+
+  public static void main(String[] args) throws IOException {
+    //With file names on the command line, decompress them all without asking anything
+    if (args.length > 0){
+      System.exit(runBatch(args));
+    }
+    //Variable initialization
+    Scanner input = new Scanner(System.in);
+    String file;
+    Decompression decompression = new Decompression();
+    boolean valid = true;
+
+    while(valid){
+      try{
+        //Ask for the file user wants to decompress
+        System.out.println("Please enter the name of the MZIP file, without its extension");
+        file = input.nextLine();
+
+        //Decode the file and write out the original
+        String outName = decompression.decompress(file + ".MZIP");
+        System.out.println("Decompressed into " + outName);
+
+        valid = false;
+      } catch (FileNotFoundException e){
+        System.out.println("The file name you entered was not valid");
+      }
+    }
+  }//end of main
+
+  /**
+   * runBatch
+   * Decompresses every MZIP file named on the command line: [-o directory] [-d dictionary]... file.MZIP...
+   * -d loads a dictionary file that MZIP files made with Compression -d need,
+   * -r start,length writes only that range of each block mode file to standard output
+   * A file named - is read from standard input and decompressed to standard output as it arrives
+   * @param args, the command line
+   * @return status, 0 if every file was decompressed, 1 if any failed, 2 if the command line was wrong
+   */
+  static int runBatch(String[] args){
+    File directory = null;
+    long rangeStart = -1;
+    long rangeLength = 0;
+    int status = 0;
+    int i = 0;
+    while ((i < args.length) && args[i].startsWith("-") && !args[i].equals("-")){
+      if (args[i].equals("-o") && (i + 1 < args.length)){
+        directory = new File(args[++i]);
+      } else if (args[i].equals("-d") && (i + 1 < args.length)){
+        try{
+          Dictionary.load(Path.of(args[++i]));
+        } catch (IOException e){
+          System.err.println(args[i] + ": " + e.getMessage());
+          return 1;
+        }
+      } else if (args[i].equals("-r") && (i + 1 < args.length)){
+        String[] range = args[++i].split(",");
+        try{
+          rangeStart = Long.parseLong(range[0]);
+          rangeLength = Long.parseLong(range[1]);
+        } catch (RuntimeException e){ //Missing part or not a number
+          rangeStart = -1;
+        }
+        if ((rangeStart < 0) || (rangeLength < 0)){
+          System.err.println("The range must be start,length in bytes");
+          return 2;
+        }
+      } else {
+        System.err.println("Usage: Decompression [-o directory] [-d dictionary]... [-r start,length] file.MZIP...");
+        return 2;
+      }
+      i++;
+    }
+    for (; i < args.length; i++){
+      try{
+        if (args[i].equals("-")){
+          decompress(System.in, System.out);
+          continue;
+        }
+        if (rangeStart >= 0){
+          writeRange(Path.of(args[i]), rangeStart, rangeLength, System.out);
+          continue;
+        }
+        File source = new File(args[i]);
+        new Decompression().decompress(args[i], (directory != null) ? directory : source.getAbsoluteFile().getParentFile());
+      } catch (IOException e){ //Keep going with the other files
+        System.err.println(args[i] + ": " + e.getMessage());
+        status = 1;
+      }
+    }
+    return status;
+  }
+
+  /**
+   * writeRange
+   * Decodes part of a block mode MZIP file, starting from the block the range begins in
+   * @param source, the MZIP file
+   * @param start, the position in the original file the range starts at
+   * @param length, the most bytes to write, fewer if the original file ends first
+   * @param out, the stream the bytes are written to, flushed but not closed
+   */
+  static void writeRange(Path source, long start, long length, OutputStream out) throws IOException{
+    SeekableMzipChannel channel = new SeekableMzipChannel(source);
+    try{
+      channel.position(start);
+      ByteBuffer buffer = ByteBuffer.allocate(Compression.BUFFER_SIZE);
+      while (length > 0){
+        buffer.clear().limit((int)Math.min(buffer.capacity(), length));
+        int count = channel.read(buffer);
+        if (count < 0){
+          break;
+        }
+        out.write(buffer.array(), 0, count);
+        length -= count;
+      }
+      out.flush();
+    } finally{
+      channel.close();
+    }
+  }
+
+  /**
+   * decompress
+   * Decompresses an MZIP file into a chosen file. Every call has its own state, so many threads can decompress at once
+   * @param source, the MZIP file
+   * @param target, the file the original data is written to
+   */
+  public static void decompress(Path source, Path target) throws IOException{
+    Decompression decompression = new Decompression();
+    InputStream in = new BufferedInputStream(Files.newInputStream(source));
+    try{
+      OutputStream out = new BufferedOutputStream(Files.newOutputStream(target));
+      boolean done = false;
+      try{
+        decompression.readLine(in); //The stored name is not needed, the target is already chosen
+        decompression.decodeData(in, source.toString(), out);
+        done = true;
+      } finally{
+        out.close();
+        if (!done){ //Do not leave half a file behind
+          Files.deleteIfExists(target);
+        }
+      }
+    } finally{
+      in.close();
+    }
+  }
+
+  /**
+   * decompress
+   * Decompresses MZIP data from a stream
+   * @param in, the MZIP data, read to its end but not closed
+   * @param out, the stream the original data is written to, flushed but not closed
+   * @return name, the file name and extension stored in the header
+   */
+  public static String decompress(InputStream in, OutputStream out) throws IOException{
+    Decompression decompression = new Decompression();
+    String stored = decompression.readLine(in);
+    if (stored == null){
+      throw new IOException("The MZIP data is empty");
+    }
+    decompression.decodeData(in, null, out);
+    out.flush();
+    return stored;
+  }
+
+  /**
+   * decompress
+   * Reads the header of an MZIP file and decodes its data into the original file
+   * @param fileName, the name of the MZIP file
+   * @return outName, the name of the file that was written
+   */
+  String decompress(String fileName) throws IOException{
+    return decompress(fileName, null);
+  }
+
+  /**
+   * decompress
+   * Reads the header of an MZIP file and decodes its data into the original file in a directory
+   * @param fileName, the name of the MZIP file
+   * @param directory, the directory the original file is written to, null for the current directory
+   * @return outName, the name of the file that was written
+   */
+  String decompress(String fileName, File directory) throws IOException{
+    InputStream in = null;
+    OutputStream out = null;
+    String outName = null;
+    boolean done = false;
+    headerLength = 0;
+    try{
+      in = new BufferedInputStream(new FileInputStream(fileName));
+
+      //First line is the file name and its extension, the rest is only there if the file had data
+      outName = outputName(readLine(in), directory);
+      out = new BufferedOutputStream(new FileOutputStream(outName));
+      decodeData(in, fileName, out);
+      done = true;
+      return outName;
+    } finally{
+      if (in != null){
+        in.close();
+      }
+      if (out != null){
+        out.close();
+        if (!done){ //Do not leave half a file behind
+          new File(outName).delete();
+        }
+      }
+    }
+  }
+
+  /**
+   * decodeData
+   * Reads the rest of the header after the name line and decodes the data
+   * @param in, the stream of the MZIP file, positioned after the name line
+   * @param fileName, the name of the MZIP file, or null if it is only a stream
+   * @param out, the stream the decoded bytes are written to
+   */
+  void decodeData(InputStream in, String fileName, OutputStream out) throws IOException{
+    String tree = readLine(in);
+    if ("A".equals(tree)){ //Adaptive mode, no table is stored, the codes are rebuilt while decoding
+      int segmentSize = AdaptiveInputStream.parseSegmentSize(readLine(in));
+      new AdaptiveInputStream(in, segmentSize).transferTo(out);
+      return;
+    }
+    if ("S".equals(tree) || "R".equals(tree)){ //Stored as it is, or one byte repeated, which follows the header once
+      long length = parseLength(readLine(in), tree.charAt(0));
+      if (tree.equals("S")){
+        copyStored(in, length, out);
+      } else {
+        writeRepeated(in.read(), length, out);
+      }
+      return;
+    }
+    if ("O".equals(tree)){ //Order 1 mode, the context map and the table of every cluster follow the header lines
+      int extraBits = parseExtraBits(readLine(in));
+      ContextModel.read(in).decodeToEnd(new BitInputStream(in), extraBits, out);
+      return;
+    }
+    if ("Z".equals(tree)){ //LZ mode, every block carries its own literal and distance tables
+      int window = LzInputStream.parseWindow(readLine(in));
+      new LzInputStream(in, window).transferTo(out);
+      return;
+    }
+    CodeTable codes = readCodes(tree, in);
+    String extra = readLine(in);
+    if (codes == null){ //Empty file
+      return;
+    }
+    if (extra == null){
+      throw new IOException("The MZIP header is cut off");
+    }
+    if (extra.startsWith("B")){ //Block mode, the blocks are found through the index
+      long dataStart = headerLength;
+      int blockSize = parseBlockSize(extra);
+      if (fileName != null){
+        decodeBlocks(fileName, dataStart, blockSize, TableCache.shared().getDecodeTable(codes), ForkJoinPool.commonPool(), out);
+        return;
+      }
+      //The index is at the end, so a stream is saved to a file first. It starts with as many 0s as the header
+      //had so the offsets in the index still line up
+      Path spill = Files.createTempFile("huffman", ".MZIP");
+      try{
+        OutputStream file = new BufferedOutputStream(Files.newOutputStream(spill));
+        try{
+          file.write(new byte[(int)dataStart]);
+          in.transferTo(file);
+        } finally{
+          file.close();
+        }
+        decodeBlocks(spill.toString(), dataStart, blockSize, TableCache.shared().getDecodeTable(codes), ForkJoinPool.commonPool(), out);
+      } finally{
+        Files.deleteIfExists(spill);
+      }
+      return;
+    }
+    int extraBits = parseExtraBits(extra);
+    decodeToEnd(TableCache.shared().getDecodeTable(codes), new BitInputStream(in), extraBits, out);
+  }
+
+  /**
+   * parseExtraBits
+   * Reads the number of 0s added to the end of the coded data from the third line of the header
+   * @param line, the third line of the header, e.g 5
+   * @return extraBits, the number of extra bits, from 0 to 7
+   */
+  static int parseExtraBits(String line) throws IOException{
+    try{
+      int extraBits = Integer.parseInt(line.trim());
+      if ((extraBits >= 0) && (extraBits < 8)){
+        return extraBits;
+      }
+    } catch (RuntimeException e){ //Missing line or not a number
+    }
+    throw new IOException("The number of extra bits in the header is not valid");
+  }
+
+  /**
+   * parseBlockSize
+   * Reads the block size from the third line of a block mode header
+   * @param line, the third line of the header, e.g B1048576
+   * @return blockSize, the most bytes of original data in a block, above 0
+   */
+  static int parseBlockSize(String line) throws IOException{
+    try{
+      int blockSize = Integer.parseInt(line.substring(1));
+      if ((line.charAt(0) == 'B') && (blockSize > 0)){
+        return blockSize;
+      }
+    } catch (RuntimeException e){ //Missing line, missing marker or not a number
+    }
+    throw new IOException("The block size in the header is not valid");
+  }
+
+  /**
+   * parseLength
+   * Reads the length of the original data from the third line of a stored or repeated byte header
+   * @param line, the third line of the header, e.g S1048576
+   * @param marker, the letter the line has to start with
+   * @return length, the number of bytes of original data
+   */
+  static long parseLength(String line, char marker) throws IOException{
+    try{
+      long length = Long.parseLong(line.substring(1));
+      if ((line.charAt(0) == marker) && (length >= 0)){
+        return length;
+      }
+    } catch (RuntimeException e){ //Missing line, missing marker or not a number
+    }
+    throw new IOException("The length in the header is not valid");
+  }
+
+  /**
+   * copyStored
+   * Copies data that was stored as it is
+   * @param in, the stream of the MZIP file, positioned after the header
+   * @param length, the number of bytes stored
+   * @param out, the stream the bytes are written to
+   */
+  void copyStored(InputStream in, long length, OutputStream out) throws IOException{
+    byte[] buffer = new byte[1 << 16];
+    while (length > 0){
+      int count = in.read(buffer, 0, (int)Math.min(buffer.length, length));
+      if (count < 0){
+        throw new IOException("The stored data is cut off");
+      }
+      out.write(buffer, 0, count);
+      length -= count;
+    }
+  }
+
+  /**
+   * writeRepeated
+   * Writes one byte over and over
+   * @param item, the byte from 0 to 255, or -1 if the stream ended before it
+   * @param length, the number of times to write it
+   * @param out, the stream the bytes are written to
+   */
+  void writeRepeated(int item, long length, OutputStream out) throws IOException{
+    if (item < 0){
+      throw new IOException("The repeated byte is cut off");
+    }
+    byte[] buffer = new byte[(int)Math.min(1 << 16, length)];
+    Arrays.fill(buffer, (byte)item);
+    while (length > 0){
+      int count = (int)Math.min(buffer.length, length);
+      out.write(buffer, 0, count);
+      length -= count;
+    }
+  }
+
+  /**
+   * decodeToEnd
+   * Decodes bytes until the stream ends, without needing to know its length up front
+   * @param table, the lookup tables for the codes
+   * @param in, the bit stream of encoded data
+   * @param extraBits, the number of 0s at the end of the stream
+   * @param out, the stream the decoded bytes are written to
+   */
+  void decodeToEnd(DecodeTable table, BitInputStream in, int extraBits, OutputStream out) throws IOException{
+    byte[] buffer = new byte[1 << 16];
+    int position = 0;
+    long remaining;
+    while ((remaining = in.remainingBits(extraBits)) > 0){
+      buffer[position++] = (byte)table.decode(in);
+      if (position == buffer.length){
+        out.write(buffer, 0, position);
+        position = 0;
+      }
+    }
+    out.write(buffer, 0, position);
+    if (remaining != 0){
+      throw new IOException("The encoded data does not end on a whole code");
+    }
+  }
+
+  /**
+   * decode
+   * Decodes bytes until all of the encoded bits have been used
+   * @param table, the lookup tables for the codes
+   * @param in, the bit stream of encoded data
+   * @param payloadBits, the number of bits of encoded data, not counting the extra bits
+   * @param out, the stream the decoded bytes are written to
+   */
+  void decode(DecodeTable table, BitInputStream in, long payloadBits, OutputStream out) throws IOException{
+    byte[] buffer = new byte[1 << 16];
+    int position = 0;
+    while (in.getBitsRead() < payloadBits){
+      buffer[position++] = (byte)table.decode(in);
+      if (position == buffer.length){
+        out.write(buffer, 0, position);
+        position = 0;
+      }
+    }
+    out.write(buffer, 0, position);
+    if (in.getBitsRead() != payloadBits){
+      throw new IOException("The encoded data does not end on a whole code");
+    }
+  }
+
+  /**
+   * decodeBlocks
+   * Decodes the blocks of a block mode MZIP file a batch at a time on all threads and writes them in order
+   * @param fileName, the name of the MZIP file
+   * @param dataStart, where the first block starts, right after the header
+   * @param blockSize, the block size from the header
+   * @param table, the lookup tables for the codes
+   * @param pool, the threads the blocks are decoded on
+   * @param out, the stream the decoded bytes are written to
+   */
+  void decodeBlocks(String fileName, long dataStart, int blockSize, DecodeTable table, ForkJoinPool pool, OutputStream out) throws IOException{
+    RandomAccessFile file = new RandomAccessFile(fileName, "r");
+    try{
+      BlockIndex index = BlockIndex.read(file, dataStart, blockSize);
+      FileChannel channel = file.getChannel();
+      int batch = pool.getParallelism() * 2;
+      DecodeTask[] tasks = new DecodeTask[batch];
+      for (int start = 0; start < index.size(); start += batch){
+        int count = Math.min(batch, index.size() - start);
+        for (int i = 0; i < count; i++){
+          tasks[i] = new DecodeTask(channel, index, start + i, table);
+          pool.execute(tasks[i]);
+        }
+        for (int i = 0; i < count; i++){
+          out.write(tasks[i].join());
+          tasks[i] = null;
+        }
+      }
+    } catch (UncheckedIOException e){ //Tasks cannot throw IOException themselves
+      throw e.getCause();
+    } finally{
+      file.close();
+    }
+  }
+
+  /**
+   * decodeBlock
+   * Decodes one block that is already in memory
+   * @param type, how the block is encoded, one of the BlockIndex types
+   * @param table, the lookup tables for the codes
+   * @param data, the encoded bytes of the block
+   * @param extraBits, the number of 0s at the end of the block
+   * @param length, the number of bytes the block decodes to
+   * @return decoded, the decoded bytes
+   */
+  byte[] decodeBlock(int type, DecodeTable table, byte[] data, int extraBits, int length) throws IOException{
+    if (type == BlockIndex.STORED){
+      if (data.length != length){
+        throw new IOException("A block of the MZIP file does not decode to its length");
+      }
+      return data;
+    }
+    byte[] decoded = new byte[length];
+    if (type == BlockIndex.RLE){
+      if (data.length != 1){
+        throw new IOException("A repeated byte block of the MZIP file is not valid");
+      }
+      Arrays.fill(decoded, data[0]);
+      return decoded;
+    }
+    if (type == BlockIndex.INTERLEAVED){
+      decodeInterleaved(table, data, decoded);
+      return decoded;
+    }
+    int start = 0; //Where the codes start
+    if (type == BlockIndex.TABLE){ //The block has its own code lengths in place of the header table
+      start = (data.length > 0) ? (data[0] & 0xFF) + 2 : 1;
+      if (start > data.length){
+        throw new IOException("The code lengths of a block of the MZIP file are cut off");
+      }
+      try{
+        table = TableCache.shared().getDecodeTable(CodeTable.readLengths(Arrays.copyOfRange(data, 1, start)));
+      } catch (IllegalArgumentException e){
+        throw new IOException("The code lengths of a block of the MZIP file are not valid", e);
+      }
+    } else if (type != BlockIndex.HUFFMAN){
+      throw new IOException("A block of the MZIP file has an unknown type");
+    }
+    BitInputStream in = new BitInputStream(new ByteArrayInputStream(data, start, data.length - start));
+    for (int i = 0; i < length; i++){
+      decoded[i] = (byte)table.decode(in);
+    }
+    if (in.getBitsRead() != (long)(data.length - start) * 8 - extraBits){
+      throw new IOException("A block of the MZIP file does not decode to its length");
+    }
+    return decoded;
+  }
+
+  /**
+   * decodeInterleaved
+   * Reads the jump table at the start of a block coded into several streams and decodes the streams side by side
+   * @param table, the lookup tables for the codes
+   * @param data, the encoded bytes of the block, jump table first
+   * @param decoded, the array the bytes are decoded into, the length of the block
+   */
+  void decodeInterleaved(DecodeTable table, byte[] data, byte[] decoded) throws IOException{
+    int streams = (data.length > 0) ? data[0] & 0xFF : 0;
+    int position = 1 + 4 * (streams - 1); //Where the first stream starts
+    if ((streams < 1) || (streams > BlockCompression.MAX_STREAMS) || (position > data.length)){
+      throw new IOException("The jump table of a block is not valid");
+    }
+    int[] starts = new int[streams];
+    int[] ends = new int[streams];
+    for (int s = 0; s < streams; s++){
+      int length = (s < streams - 1) ? ByteBuffer.wrap(data, 1 + 4 * s, 4).getInt() : data.length - position;
+      if ((length < 0) || (length > data.length - position)){
+        throw new IOException("The jump table of a block is not valid");
+      }
+      starts[s] = position;
+      position += length;
+      ends[s] = position;
+    }
+    table.decodeInterleaved(data, starts, ends, decoded);
+  }
+
+  /* DecodeTask
+   * Reads and decodes one block of a block mode MZIP file
+   */
+  private class DecodeTask extends RecursiveTask<byte[]>{
+    private FileChannel channel;
+    private BlockIndex index;
+    private int block;
+    private DecodeTable table;
+
+    DecodeTask(FileChannel channel, BlockIndex index, int block, DecodeTable table){
+      this.channel = channel;
+      this.index = index;
+      this.block = block;
+      this.table = table;
+    }
+
+    @Override
+    protected byte[] compute(){
+      try{
+        byte[] data = BlockCompression.readBlock(channel, index.getOffset(block), index.getCompressedLength(block));
+        return decodeBlock(index.getType(block), table, data, index.getExtraBits(block), index.getOriginalLength(block));
+      } catch (IOException e){
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * getHeaderLength
+   * Gets the number of header bytes read so far, which is where the data starts once the header is read
+   * @return headerLength, the number of bytes
+   */
+  int getHeaderLength(){
+    return headerLength;
+  }
+
+  /**
+   * readLine
+   * Reads one line of the header, the line ends with a carriage return and a new line
+   * @param in, the stream of the MZIP file
+   * @return line, the line without its ending, or null if the file has ended
+   */
+  String readLine(InputStream in) throws IOException{
+    StringBuilder line = new StringBuilder();
+    int c;
+    while ((c = in.read()) != -1){
+      headerLength++;
+      if (c == 13){ //Carriage return is always followed by a new line
+        in.read();
+        headerLength++;
+        return line.toString();
+      }
+      line.append((char)c);
+    }
+    if (line.length() == 0){
+      return null;
+    }
+    return line.toString();
+  }
+
+  /**
+   * readCodes
+   * Makes the code table from the second line of the header, either packed canonical code lengths, the id of a
+   * dictionary, or a printed tree
+   * @param tree, the second line of the header
+   * @param in, the stream of the MZIP file, positioned after the second line
+   * @return codes, the code table, or null if the file had no data
+   */
+  CodeTable readCodes(String tree, InputStream in) throws IOException{
+    if ((tree == null) || (tree.length() == 0)){
+      return null;
+    }
+    if (tree.charAt(0) == 'D'){ //The table is in a dictionary file
+      return Dictionary.find(tree.substring(1)).getTable();
+    }
+    if (tree.charAt(0) != 'C'){ //Files from before canonical codes print the whole tree
+      return new CodeTable(readTree(tree));
+    }
+    int count;
+    try{
+      count = Integer.parseInt(tree.substring(1));
+    } catch (NumberFormatException e){
+      count = 0;
+    }
+    if ((count <= 0) || (count > 256)){ //Packed lengths never take more than one byte per length
+      throw new IOException("The number of code lengths in the header is not valid");
+    }
+    byte[] packed = new byte[count];
+    for (int i = 0; i < packed.length; i++){
+      int c = in.read();
+      if (c == -1){
+        throw new IOException("The code lengths in the header are cut off");
+      }
+      packed[i] = (byte)c;
+    }
+    headerLength += packed.length;
+    String end = readLine(in);
+    if ((end == null) || (end.length() != 0)){ //The packed lengths are followed by the end of the line
+      throw new IOException("The code lengths in the header are not valid");
+    }
+    try{
+      return CodeTable.readLengths(packed);
+    } catch (IllegalArgumentException e){
+      throw new IOException("The code lengths in the header are not valid", e);
+    }
+  }
+
+  /**
+   * readTree
+   * Rebuilds the huffman tree from the line printed by Compression.printTree
+   * @param tree, the huffman tree on one line, e.g ((101 32) (116 (97 111)))
+   * @return huffTree, the huffman tree in flat arrays
+   */
+  HuffmanTree readTree(String tree) throws IOException{
+    int[] position = new int[1];
+    HuffmanTree huffTree = new HuffmanTree();
+    readNode(tree, position, huffTree);
+    if (position[0] != tree.length()){
+      throw new IOException("The huffman tree in the header is not valid");
+    }
+    return huffTree;
+  }
+
+  /**
+   * readNode
+   * Reads either a character code or a bracketed pair of nodes
+   * @param tree, the huffman tree on one line
+   * @param position, the index in the line being read, moved past the node
+   * @param huffTree, the tree the node is added to
+   * @return node, the number of the node that was read
+   */
+  private int readNode(String tree, int[] position, HuffmanTree huffTree) throws IOException{
+    if (position[0] >= tree.length()){
+      throw new IOException("The huffman tree in the header is not valid");
+    }
+    if (tree.charAt(position[0]) == '('){
+      position[0]++;
+      int left = readNode(tree, position, huffTree);
+      if ((position[0] >= tree.length()) || (tree.charAt(position[0]) != ' ')){
+        throw new IOException("The huffman tree in the header is not valid");
+      }
+      position[0]++;
+      int right = readNode(tree, position, huffTree);
+      if ((position[0] >= tree.length()) || (tree.charAt(position[0]) != ')')){
+        throw new IOException("The huffman tree in the header is not valid");
+      }
+      position[0]++;
+      int node = huffTree.join(left, right);
+      if (node < 0){
+        throw new IOException("The huffman tree in the header is not valid");
+      }
+      return node;
+    }
+    int start = position[0];
+    while ((position[0] < tree.length()) && Character.isDigit(tree.charAt(position[0]))){
+      position[0]++;
+    }
+    if (start == position[0]){
+      throw new IOException("The huffman tree in the header is not valid");
+    }
+    int item;
+    try{
+      item = Integer.parseInt(tree.substring(start, position[0]));
+    } catch (NumberFormatException e){ //Too many digits
+      throw new IOException("The huffman tree in the header is not valid", e);
+    }
+    int symbol = huffTree.addLeaf(item & 0xFF); //Old files printed the signed byte
+    if (symbol < 0){ //The same character twice
+      throw new IOException("The huffman tree in the header is not valid");
+    }
+    return symbol;
+  }
+
+  /**
+   * outputName
+   * Finds a name for the decompressed file that will not write over an existing file
+   * @param stored, the file name and upper case extension stored in the MZIP file
+   * @param directory, the directory the file will be in, null for the current directory
+   * @return name, the name of the file to write
+   */
+  String outputName(String stored, File directory) throws IOException{
+    if (stored == null){
+      throw new IOException("The MZIP file is empty");
+    }
+    String file = stored;
+    String fileExtension = "";
+    int dot = stored.lastIndexOf('.');
+    if (dot >= 0){ //Compression stores the extension in upper case
+      file = stored.substring(0, dot);
+      fileExtension = stored.substring(dot).toLowerCase();
+    }
+    file = new File(file).getName(); //Never write outside the directory, whatever the header says
+    if (directory != null){
+      file = new File(directory, file).getPath();
+    }
+    String name = file + fileExtension;
+    int copy = 1;
+    while (new File(name).exists()){
+      name = file + "(" + copy + ")" + fileExtension;
+      copy++;
+    }
+    return name;
+  }
+}//end of Decompression class
@@ -0,0 +1,145 @@
+/* Dictionary.java
+ * Purpose: A code table trained on sample files and saved on its own, so small MZIP files can name it instead of storing a table
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+public class Dictionary{
+  //Variables
+  static final String MAGIC = "MZDICT"; //First line of a dictionary file
+  private static final Map<String, Dictionary> LOADED = new ConcurrentHashMap<String, Dictionary>();
+  private String id;
+  private CodeTable table;
+
+  /**
+   * Dictionary
+   * Constructor that names a code table by a fingerprint of its code lengths
+   * @param table, a code table with a code for every byte
+   */
+  Dictionary(CodeTable table){
+    CRC32 crc = new CRC32();
+    crc.update(table.writeLengths());
+    this.id = String.format("%08x", crc.getValue());
+    this.table = table;
+  }
+
+  /**
+   * train
+   * Counts the bytes of sample files and builds a code table from the total. Every byte gets a count of at
+   * least 1, so files with bytes the samples never had can still be compressed
+   * @param samples, files like the ones that will be compressed
+   * @return dictionary, the trained dictionary
+   */
+  public static Dictionary train(List<Path> samples) throws IOException{
+    Compression<String> compression = new Compression<String>();
+    long[] frequency = new long[256];
+    for (Path sample : samples){
+      long[] counts = compression.makeFrequencyArray(sample.toString());
+      for (int i = 0; i < 256; i++){
+        frequency[i] += counts[i];
+      }
+    }
+    for (int i = 0; i < 256; i++){
+      frequency[i]++;
+    }
+    return new Dictionary(TableCache.shared().getCodeTable(frequency));
+  }
+
+  /**
+   * load
+   * Reads a dictionary file and makes it available to Decompression under its id
+   * @param path, the dictionary file
+   * @return dictionary, the dictionary that was read
+   */
+  public static Dictionary load(Path path) throws IOException{
+    InputStream in = new BufferedInputStream(Files.newInputStream(path));
+    try{
+      Decompression decompression = new Decompression();
+      if (!MAGIC.equals(decompression.readLine(in))){
+        throw new IOException(path + " is not a dictionary file");
+      }
+      CodeTable table = decompression.readCodes(decompression.readLine(in), in);
+      if (table == null){
+        throw new IOException(path + " has no code table");
+      }
+      Dictionary dictionary = new Dictionary(table);
+      register(dictionary);
+      return dictionary;
+    } finally{
+      in.close();
+    }
+  }
+
+  /**
+   * save
+   * Writes the dictionary to a file: the MZDICT line, then the packed code lengths as in an MZIP header
+   * @param path, the file to write
+   */
+  public void save(Path path) throws IOException{
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(path));
+    try{
+      String header = MAGIC + "\r\n" + new Compression<String>().printLengths(table) + "\r\n";
+      for (int i = 0; i < header.length(); i++){
+        out.write(header.charAt(i));
+      }
+    } finally{
+      out.close();
+    }
+  }
+
+  /**
+   * register
+   * Makes a dictionary available to Decompression under its id
+   * @param dictionary, the dictionary
+   */
+  public static void register(Dictionary dictionary){
+    LOADED.put(dictionary.getId(), dictionary);
+  }
+
+  /**
+   * find
+   * Gets a dictionary that was loaded or registered
+   * @param id, the id from an MZIP header
+   * @return dictionary, the dictionary with that id
+   */
+  static Dictionary find(String id) throws IOException{
+    Dictionary dictionary = LOADED.get(id);
+    if (dictionary == null){
+      throw new IOException("The MZIP data needs dictionary " + id + ", which is not loaded");
+    }
+    return dictionary;
+  }
+
+  /**
+   * getId
+   * Gets the id MZIP files use to name this dictionary
+   * @return id, 8 hex digits
+   */
+  public String getId(){
+    return id;
+  }
+
+  /**
+   * getTable
+   * Gets the code table
+   * @return table, the code table
+   */
+  CodeTable getTable(){
+    return table;
+  }
+}//end of Dictionary class
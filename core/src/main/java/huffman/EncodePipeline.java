@@ -0,0 +1,241 @@
+/* EncodePipeline.java
+ * Purpose: Reads, encodes and writes a file at the same time on three threads, joined by bounded ring buffers
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.OutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+class EncodePipeline{
+  //Variables
+  static final int CHUNK_SIZE = 1 << 18; //Bytes in each pooled buffer
+  static final int DEPTH = 4; //Buffers in each pool, so at most 2 * DEPTH * CHUNK_SIZE bytes are held
+  private Compression<?> compression;
+  private CodeTable table;
+  private RingBuffer<Chunk> freeInput; //Empty buffers for the reader
+  private RingBuffer<Chunk> fullInput; //Bytes of the file for the encoder
+  private RingBuffer<Chunk> freeOutput; //Empty buffers for the encoder
+  private RingBuffer<Chunk> fullOutput; //Encoded bytes for the writer
+  private volatile Throwable failure; //First error in any stage
+  private String fileName; //The file being encoded, for the metrics
+
+  /**
+   * EncodePipeline
+   * Constructor that makes the buffer pools
+   * @param compression, the compression the codes are written by
+   * @param table, the code table made from the huffman tree
+   */
+  EncodePipeline(Compression<?> compression, CodeTable table){
+    this.compression = compression;
+    this.table = table;
+    this.freeInput = new RingBuffer<Chunk>(DEPTH);
+    this.fullInput = new RingBuffer<Chunk>(DEPTH);
+    this.freeOutput = new RingBuffer<Chunk>(DEPTH);
+    this.fullOutput = new RingBuffer<Chunk>(DEPTH);
+    for (int i = 0; i < DEPTH; i++){
+      freeInput.offer(new Chunk());
+      freeOutput.offer(new Chunk());
+    }
+  }
+
+  /**
+   * encode
+   * Encodes a file into a stream. A reader thread fills buffers from the file and a writer thread writes the
+   * encoded buffers while this thread encodes. Each stage waits when the next one is behind, so memory stays
+   * fixed. Files of less than two buffers are encoded on this thread alone
+   * @param fileName, the name of the file to encode
+   * @param out, the stream the encoded data is written to
+   * @return extra, the number of 0s added to make a whole byte at the end
+   */
+  int encode(String fileName, OutputStream out) throws IOException{
+    this.fileName = fileName;
+    MappedInput in = new MappedInput(fileName);
+    try{
+      if (in.size() < 2L * CHUNK_SIZE){ //Not worth starting threads
+        BitOutputStream bits = new BitOutputStream(out);
+        Chunk chunk = freeInput.poll();
+        int count;
+        while ((count = in.read(chunk.data)) > 0){
+          compression.encode(table, chunk.data, 0, count, bits);
+        }
+        return bits.flush();
+      }
+      Thread reader = start("huffman-reader", () -> read(in));
+      Thread writer = start("huffman-writer", () -> write(out));
+      int extra = 0;
+      try{
+        ChunkOutputStream chunks = new ChunkOutputStream();
+        BitOutputStream bits = new BitOutputStream(chunks);
+        for (Chunk chunk = fullInput.take(); chunk.length >= 0; chunk = fullInput.take()){
+          compression.encode(table, chunk.data, 0, chunk.length, bits);
+          freeInput.put(chunk);
+        }
+        extra = bits.flush();
+        chunks.finish();
+      } catch (Throwable e){ //Errors too, or the other stages would wait on the rings forever
+        fail(e);
+      }
+      join(reader);
+      join(writer);
+      if (failure instanceof IOException){
+        throw (IOException)failure;
+      } else if (failure instanceof RuntimeException){
+        throw (RuntimeException)failure;
+      } else if (failure instanceof Error){
+        throw (Error)failure;
+      } else if (failure != null){
+        throw new IOException("The pipeline failed", failure);
+      }
+      return extra;
+    } finally{
+      in.close();
+    }
+  }
+
+  /**
+   * read
+   * The reader stage: fills empty buffers from the file in order, then sends a buffer with no length to mark the end
+   * @param in, the file
+   */
+  private void read(MappedInput in) throws IOException{
+    while (true){
+      Chunk chunk = freeInput.take();
+      chunk.length = in.read(chunk.data);
+      fullInput.put(chunk);
+      if (chunk.length < 0){
+        return;
+      }
+    }
+  }
+
+  /**
+   * write
+   * The writer stage: writes encoded buffers in order with large sequential writes until the end mark
+   * @param out, the stream the encoded data is written to
+   */
+  private void write(OutputStream out) throws IOException{
+    Metrics.Timer timer = Metrics.start("write", fileName);
+    long written = 0;
+    for (Chunk chunk = fullOutput.take(); chunk.length >= 0; chunk = fullOutput.take()){
+      out.write(chunk.data, 0, chunk.length);
+      written += chunk.length;
+      freeOutput.put(chunk);
+    }
+    Metrics.stop(timer, written, written);
+  }
+
+  /**
+   * start
+   * Starts a stage on its own thread, any error stops the other stages
+   * @param name, the name of the thread
+   * @param stage, the stage
+   * @return thread, the running thread
+   */
+  private Thread start(String name, Stage stage){
+    Thread thread = new Thread(() -> {
+      try{
+        stage.run();
+      } catch (Throwable e){
+        fail(e);
+      }
+    }, name);
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  /**
+   * fail
+   * Keeps the first error and closes every ring, so no stage waits forever on one that stopped
+   * @param e, the error
+   */
+  private synchronized void fail(Throwable e){
+    if (failure == null){
+      failure = e;
+    }
+    freeInput.close();
+    fullInput.close();
+    freeOutput.close();
+    fullOutput.close();
+  }
+
+  /**
+   * join
+   * Waits for a stage to finish
+   * @param thread, the thread of the stage
+   */
+  private void join(Thread thread) throws IOException{
+    try{
+      thread.join();
+    } catch (InterruptedException e){
+      fail(e);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing");
+    }
+  }
+
+  /* Stage
+   * The work of one thread of the pipeline
+   */
+  private interface Stage{
+    void run() throws IOException;
+  }
+
+  /* Chunk
+   * A pooled buffer and how much of it is used, a length below 0 marks the end
+   */
+  private static class Chunk{
+    byte[] data = new byte[CHUNK_SIZE];
+    int length;
+  }
+
+  /* ChunkOutputStream
+   * The encoder's side of the writer ring: fills empty buffers and hands them over once they are full
+   */
+  private class ChunkOutputStream extends OutputStream{
+    private Chunk current;
+
+    @Override
+    public void write(int b) throws IOException{
+      write(new byte[] {(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException{
+      while (len > 0){
+        if (current == null){
+          current = freeOutput.take();
+          current.length = 0;
+        }
+        int count = Math.min(len, CHUNK_SIZE - current.length);
+        System.arraycopy(b, off, current.data, current.length, count);
+        current.length += count;
+        off += count;
+        len -= count;
+        if (current.length == CHUNK_SIZE){
+          fullOutput.put(current);
+          current = null;
+        }
+      }
+    }
+
+    /**
+     * finish
+     * Hands over the last buffer and the end mark
+     */
+    void finish() throws IOException{
+      if (current != null){
+        fullOutput.put(current);
+      }
+      current = freeOutput.take();
+      current.length = -1;
+      fullOutput.put(current);
+      current = null;
+    }
+  }
+}//end of EncodePipeline class
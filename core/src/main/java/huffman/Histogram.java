@@ -0,0 +1,104 @@
+/* Histogram.java
+ * Purpose: Counts how often each byte appears in blocks of data, as fast as the data can be read
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+class Histogram{
+  //Variables
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final int TABLES = 4;
+  private static final int FLUSH_SIZE = 1 << 30; //Bytes counted before the int counters are moved into the long totals
+  private int[] counts; //Four tables of 256 counters one after another
+  private long[] frequency;
+  private long pending; //Bytes counted since the last flush
+
+  /**
+   * Histogram
+   * Constructor that makes a histogram with every count at 0
+   */
+  Histogram(){
+    this.counts = new int[TABLES * 256];
+    this.frequency = new long[256];
+    this.pending = 0;
+  }
+
+  /**
+   * add
+   * Counts a range of bytes. Eight bytes are loaded at once and spread over four tables, so a run of the
+   * same byte does not make every increment wait for the one before it to be stored
+   * @param data, the array holding the bytes
+   * @param start, the index of the first byte to count
+   * @param end, the index after the last byte to count
+   */
+  public void add(byte[] data, int start, int end){
+    while (end - start > FLUSH_SIZE){ //Keep every int counter below 2^31
+      add(data, start, start + FLUSH_SIZE);
+      start += FLUSH_SIZE;
+    }
+    if (pending + (end - start) > FLUSH_SIZE){
+      flush();
+    }
+    pending += end - start;
+    int[] c = counts;
+    int i = start;
+    for (; i + 8 <= end; i += 8){
+      long v = (long)LONGS.get(data, i);
+      c[(int)v & 0xFF]++;
+      c[256 + ((int)(v >>> 8) & 0xFF)]++;
+      c[512 + ((int)(v >>> 16) & 0xFF)]++;
+      c[768 + ((int)(v >>> 24) & 0xFF)]++;
+      c[(int)(v >>> 32) & 0xFF]++;
+      c[256 + ((int)(v >>> 40) & 0xFF)]++;
+      c[512 + ((int)(v >>> 48) & 0xFF)]++;
+      c[768 + (int)(v >>> 56)]++;
+    }
+    for (; i < end; i++){
+      c[data[i] & 0xFF]++;
+    }
+  }
+
+  /**
+   * add
+   * Adds the counts of another histogram to this one
+   * @param other, the histogram to add
+   */
+  public void add(Histogram other){
+    long[] otherFrequency = other.getFrequency();
+    for (int i = 0; i < 256; i++){
+      frequency[i] += otherFrequency[i];
+    }
+  }
+
+  /**
+   * getFrequency
+   * Gets the total count of every byte
+   * @return frequency, the count of each byte from 0 to 255
+   */
+  public long[] getFrequency(){
+    flush();
+    return frequency;
+  }
+
+  /**
+   * flush
+   * Moves the four tables of int counters into the long totals
+   */
+  private void flush(){
+    for (int i = 0; i < 256; i++){
+      frequency[i] += (long)counts[i] + counts[256 + i] + counts[512 + i] + counts[768 + i];
+      counts[i] = 0;
+      counts[256 + i] = 0;
+      counts[512 + i] = 0;
+      counts[768 + i] = 0;
+    }
+    pending = 0;
+  }
+}//end of Histogram class
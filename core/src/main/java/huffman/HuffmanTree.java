@@ -0,0 +1,265 @@
+/* HuffmanTree.java
+ * Purpose: A huffman tree kept in flat arrays of node numbers, built and walked without making an object per node
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.util.Arrays;
+
+class HuffmanTree{
+  //Variables
+  static final int LEAVES = 256; //Nodes 0 to 255 are the leaves, the node number is the byte
+  private int leaves; //Size of the alphabet, 256 unless the symbols are more than bytes
+  private int symbolBits; //Bits a symbol takes in sorted
+  private int maxNodes;
+  private short[] left; //Children of the joined nodes, which are numbered from the alphabet size up in the order they were made
+  private short[] right;
+  private short[] parent;
+  private long[] weight;
+  private short[] depth;
+  private long[] sorted; //Leaves packed as weight and symbol, for sorting
+  private int[] leafOrder;
+  private int leafCount;
+  private int next; //Number of the next joined node
+  private int root; //-1 if the tree is empty
+
+  /**
+   * HuffmanTree
+   * Constructor that makes the arrays once for the 256 bytes, so the tree can be built again and again without allocating
+   */
+  HuffmanTree(){
+    this(LEAVES);
+  }
+
+  /**
+   * HuffmanTree
+   * Constructor for an alphabet of any size, such as the literals and match lengths of LzOutputStream
+   * @param leaves, the number of symbols, from 1 to 16384
+   */
+  HuffmanTree(int leaves){
+    if ((leaves < 1) || (leaves > (1 << 14))){ //Node numbers have to fit in a short
+      throw new IllegalArgumentException("The alphabet must have 1 to 16384 symbols");
+    }
+    this.leaves = leaves;
+    this.symbolBits = 32 - Integer.numberOfLeadingZeros(leaves - 1);
+    this.maxNodes = 2 * leaves - 1;
+    this.left = new short[maxNodes];
+    this.right = new short[maxNodes];
+    this.parent = new short[maxNodes];
+    this.weight = new long[maxNodes];
+    this.depth = new short[maxNodes];
+    this.sorted = new long[leaves];
+    this.leafOrder = new int[leaves];
+    clear();
+  }
+
+  /**
+   * clear
+   * Empties the tree
+   */
+  void clear(){
+    next = leaves;
+    root = -1;
+    leafCount = 0;
+    Arrays.fill(parent, (short)-1);
+    Arrays.fill(weight, 0, leaves, 0);
+  }
+
+  /**
+   * build
+   * Builds the huffman tree from the counts with two queues: the leaves sorted by count, and the joined nodes,
+   * which are made in order of count. Ties go to the leaf, then to the lower byte or the older joined node,
+   * the same order PriorityQ gives, so the tree is the one buildTree makes
+   * @param frequency, the count of each byte from 0 to 255
+   * @return tree, this tree
+   */
+  HuffmanTree build(long[] frequency){
+    sortLeaves(frequency);
+    joinAll();
+    return this;
+  }
+
+  /**
+   * sortLeaves
+   * Empties the tree and puts the bytes that appear in order of count, then byte, as the first queue
+   * @param frequency, the count of each byte from 0 to 255
+   */
+  void sortLeaves(long[] frequency){
+    clear();
+    boolean packed = true; //Counts below 2^55 fit above a byte in one long, a little less above larger symbols
+    long mask = (1L << symbolBits) - 1;
+    for (int i = 0; i < leaves; i++){
+      if (frequency[i] != 0){
+        weight[i] = frequency[i];
+        packed &= frequency[i] < (1L << (63 - symbolBits));
+        sorted[leafCount++] = (frequency[i] << symbolBits) | i;
+      }
+    }
+    if (packed){
+      Arrays.sort(sorted, 0, leafCount);
+      for (int i = 0; i < leafCount; i++){
+        leafOrder[i] = (int)(sorted[i] & mask);
+      }
+    } else { //Insertion sort on the counts themselves, a stable sort keeps the bytes in order
+      for (int i = 0; i < leafCount; i++){
+        int symbol = (int)(sorted[i] & mask);
+        int j = i;
+        while ((j > 0) && (weight[leafOrder[j - 1]] > weight[symbol])){
+          leafOrder[j] = leafOrder[j - 1];
+          j--;
+        }
+        leafOrder[j] = symbol;
+      }
+    }
+  }
+
+  /**
+   * joinAll
+   * Joins the two smallest nodes of the two queues until one node is left
+   */
+  void joinAll(){
+    if (leafCount == 0){
+      return;
+    }
+    int leaf = 0; //Next leaf to take
+    int joined = leaves; //Next joined node to take
+    while ((leafCount - leaf) + (next - joined) > 1){
+      int first = ((leaf < leafCount) && ((joined == next) || (weight[leafOrder[leaf]] <= weight[joined]))) ? leafOrder[leaf++] : joined++;
+      int second = ((leaf < leafCount) && ((joined == next) || (weight[leafOrder[leaf]] <= weight[joined]))) ? leafOrder[leaf++] : joined++;
+      join(first, second);
+    }
+    root = (next > leaves) ? next - 1 : leafOrder[0];
+  }
+
+  /**
+   * addLeaf
+   * Adds a leaf for a tree that is read rather than built
+   * @param symbol, the byte as a number from 0 to 255
+   * @return node, the number of the leaf, or -1 if the byte already has one
+   */
+  int addLeaf(int symbol){
+    if (weight[symbol] != 0){
+      return -1;
+    }
+    weight[symbol] = 1;
+    root = symbol; //Until it is joined to something
+    return symbol;
+  }
+
+  /**
+   * join
+   * Makes a node with two children, its count is the sum of theirs
+   * @param first, the left child, which gets a 0 in the code
+   * @param second, the right child, which gets a 1 in the code
+   * @return node, the number of the joined node, or -1 if the tree is full
+   */
+  int join(int first, int second){
+    if (next == maxNodes){
+      return -1;
+    }
+    int node = next++;
+    left[node] = (short)first;
+    right[node] = (short)second;
+    parent[first] = (short)node;
+    parent[second] = (short)node;
+    weight[node] = weight[first] + weight[second];
+    parent[node] = -1;
+    root = node;
+    return node;
+  }
+
+  /**
+   * isEmpty
+   * Checks if the tree has no leaves
+   * @return empty, true if there is nothing in the tree
+   */
+  boolean isEmpty(){
+    return root < 0;
+  }
+
+  /**
+   * getRoot
+   * Gets the root of the tree
+   * @return root, the node number of the root, a byte if the tree is a single leaf, -1 if it is empty
+   */
+  int getRoot(){
+    return root;
+  }
+
+  /**
+   * isLeaf
+   * Checks if a node is a leaf
+   * @param node, the node number
+   * @return leaf, true for the nodes that are symbols
+   */
+  boolean isLeaf(int node){
+    return node < leaves;
+  }
+
+  /**
+   * getLeaves
+   * Gets the size of the alphabet
+   * @return leaves, the number of symbols
+   */
+  int getLeaves(){
+    return leaves;
+  }
+
+  /**
+   * getLeft
+   * Gets the left child of a joined node
+   * @param node, the node number
+   * @return child, the node number of the left child
+   */
+  int getLeft(int node){
+    return left[node];
+  }
+
+  /**
+   * getRight
+   * Gets the right child of a joined node
+   * @param node, the node number
+   * @return child, the node number of the right child
+   */
+  int getRight(int node){
+    return right[node];
+  }
+
+  /**
+   * getLengths
+   * Finds the depth of every leaf. Joined nodes are made after their children, so going from the root down to
+   * the first joined node sets every parent before its children, with no recursion. A tree of one leaf still gets one bit
+   * @param lengths, the array the code length of each byte is put in, 0 for bytes not in the tree
+   * @return maxLength, the longest code length, 0 if the tree is empty
+   */
+  int getLengths(int[] lengths){
+    Arrays.fill(lengths, 0);
+    if (root < 0){
+      return 0;
+    }
+    if (isLeaf(root)){
+      lengths[root] = 1;
+      return 1;
+    }
+    int maxLength = 0;
+    depth[root] = 0;
+    for (int node = root; node >= leaves; node--){
+      short d = (short)(depth[node] + 1);
+      depth[left[node]] = d;
+      depth[right[node]] = d;
+      if (isLeaf(left[node])){
+        lengths[left[node]] = d;
+      }
+      if (isLeaf(right[node])){
+        lengths[right[node]] = d;
+      }
+      if (d > maxLength){
+        maxLength = d;
+      }
+    }
+    return maxLength;
+  }
+}//end of HuffmanTree class
@@ -0,0 +1,267 @@
+/* LoadGenerator.java
+ * Purpose: Sends many small requests to a CompressionServer from many connections at once and reports the throughput and latency
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LoadGenerator{
+  //Variables
+  private static final String[] WORDS = {"the", "of", "and", "a", "to", "in", "is", "you", "that", "it", "he", "was", "for", "on", "are", "as", "with",
+    "his", "they", "at", "be", "this", "from", "have", "or", "by", "one", "had", "not", "but", "what", "all", "were", "when", "we", "there"};
+  private InetSocketAddress address;
+  private byte[] payload;
+  private long[][] latencies; //Nanoseconds of every request, one array per connection
+  private double elapsed; //Seconds from the start until the last reply
+  private AtomicLong errors;
+  private String firstError;
+
+  public static void main(String[] args){
+    System.exit(run(args));
+  }
+
+  /**
+   * run
+   * Runs a load test: [-h host] [-p port] [-c connections] [-n requests] [-s size] [file]. Every connection sends
+   * its requests one after another, each a copy of the file or of made up text of the given size
+   * @param args, the command line
+   * @return status, 0 if every request was answered correctly, 1 if any failed, 2 if the command line was wrong
+   */
+  static int run(String[] args){
+    InetAddress host = InetAddress.getLoopbackAddress();
+    int port = CompressionServer.DEFAULT_PORT;
+    int connections = 1000;
+    int requests = 100; //Per connection
+    int size = 1024;
+    Path file = null;
+    try{
+      for (int i = 0; i < args.length; i++){
+        if (!args[i].startsWith("-") && (i == args.length - 1)){
+          file = Path.of(args[i]);
+        } else if (i + 1 >= args.length){
+          throw new IllegalArgumentException(args[i]);
+        } else if (args[i].equals("-h")){
+          host = InetAddress.getByName(args[++i]);
+        } else if (args[i].equals("-p")){
+          port = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-c")){
+          connections = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-n")){
+          requests = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-s")){
+          size = Integer.parseInt(args[++i]);
+        } else {
+          throw new IllegalArgumentException(args[i]);
+        }
+      }
+      if ((connections < 1) || (requests < 1) || (size < 0)){
+        throw new IllegalArgumentException();
+      }
+    } catch (IllegalArgumentException e){
+      System.err.println("Usage: LoadGenerator [-h host] [-p port] [-c connections] [-n requests] [-s size] [file]");
+      return 2;
+    } catch (IOException e){
+      System.err.println(e.getMessage());
+      return 1;
+    }
+    try{
+      byte[] payload = (file != null) ? Files.readAllBytes(file) : makeText(size);
+      LoadGenerator generator = new LoadGenerator(new InetSocketAddress(host, port), payload);
+      generator.start(connections, requests);
+      generator.report(System.out);
+      return (generator.errors.get() == 0) ? 0 : 1;
+    } catch (IOException e){
+      System.err.println(e.getMessage());
+      return 1;
+    } catch (InterruptedException e){
+      return 1;
+    }
+  }
+
+  /**
+   * LoadGenerator
+   * Constructor that sets what is sent and where
+   * @param address, the address of the server
+   * @param payload, the bytes of every request
+   */
+  LoadGenerator(InetSocketAddress address, byte[] payload){
+    this.address = address;
+    this.payload = payload;
+    this.errors = new AtomicLong();
+  }
+
+  /**
+   * makeText
+   * Makes text of common English words, so the requests compress like real ones
+   * @param size, the number of bytes
+   * @return text, the bytes of the text
+   */
+  static byte[] makeText(int size){
+    Random random = new Random(20190401);
+    StringBuilder text = new StringBuilder(size + 16);
+    while (text.length() < size){
+      text.append(WORDS[random.nextInt(WORDS.length)]).append((random.nextInt(12) == 0) ? ".\n" : " ");
+    }
+    return text.substring(0, size).getBytes();
+  }
+
+  /**
+   * start
+   * Opens every connection on a thread of its own, starts them together and waits for all of them to finish
+   * @param connections, the number of connections
+   * @param requests, the number of requests on each connection
+   * @return seconds, the time from the start until the last reply
+   */
+  double start(int connections, int requests) throws InterruptedException{
+    latencies = new long[connections][];
+    CountDownLatch ready = new CountDownLatch(connections);
+    CountDownLatch go = new CountDownLatch(1);
+    Thread[] threads = new Thread[connections];
+    for (int i = 0; i < connections; i++){
+      int connection = i;
+      threads[i] = new Thread(null, () -> {
+        ready.countDown();
+        try{
+          go.await();
+          latencies[connection] = send(requests, connection == 0);
+        } catch (InterruptedException e){
+        }
+      }, "load-" + i, 256 << 10);
+      threads[i].start();
+    }
+    ready.await();
+    long start = System.nanoTime();
+    go.countDown();
+    for (Thread thread : threads){
+      thread.join();
+    }
+    elapsed = (System.nanoTime() - start) / 1e9;
+    return elapsed;
+  }
+
+  /**
+   * send
+   * Sends requests on one connection, opening a new connection after an error
+   * @param requests, the number of requests
+   * @param check, true to decompress every reply and compare it with the payload, done on the first connection only
+   * @return latencies, the nanoseconds each answered request took, errors left out
+   */
+  private long[] send(int requests, boolean check){
+    long[] times = new long[requests];
+    int answered = 0;
+    Socket socket = null;
+    DataInputStream in = null;
+    DataOutputStream out = null;
+    for (int i = 0; i < requests; i++){
+      long start = System.nanoTime();
+      try{
+        if (socket == null){
+          socket = new Socket();
+          socket.setTcpNoDelay(true);
+          socket.connect(address);
+          in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 8192));
+          out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 8192));
+        }
+        out.writeUTF("request.txt");
+        out.writeLong(payload.length);
+        out.write(payload);
+        out.flush();
+        if (in.readUnsignedByte() != CompressionServer.OK){
+          throw new IOException(in.readUTF());
+        }
+        byte[] reply = new byte[(int)in.readLong()];
+        in.readFully(reply);
+        times[answered++] = System.nanoTime() - start;
+        if (check){
+          ByteArrayOutputStream original = new ByteArrayOutputStream(payload.length);
+          Decompression.decompress(new ByteArrayInputStream(reply), original);
+          if (!Arrays.equals(original.toByteArray(), payload)){
+            throw new IOException("A reply did not decompress to the request");
+          }
+        }
+      } catch (IOException e){
+        if (errors.getAndIncrement() == 0){
+          firstError = e.getMessage();
+        }
+        close(socket);
+        socket = null;
+      }
+    }
+    close(socket);
+    return Arrays.copyOf(times, answered);
+  }
+
+  /**
+   * close
+   * Closes a connection, ignoring errors
+   * @param socket, the connection, or null
+   */
+  private static void close(Socket socket){
+    if (socket != null){
+      try{
+        socket.close();
+      } catch (IOException e){
+      }
+    }
+  }
+
+  /**
+   * report
+   * Prints the throughput, the errors and the latency percentiles of the last run
+   * @param out, the stream the report is printed to
+   */
+  void report(PrintStream out){
+    int total = 0;
+    for (long[] times : latencies){
+      total += times.length;
+    }
+    long[] all = new long[total];
+    int position = 0;
+    for (long[] times : latencies){
+      System.arraycopy(times, 0, all, position, times.length);
+      position += times.length;
+    }
+    Arrays.sort(all);
+    out.println(String.format("%d requests of %d bytes on %d connections in %.2f s: %.0f requests/s, %d errors",
+                              total, payload.length, latencies.length, elapsed, total / elapsed, errors.get()));
+    if (firstError != null){
+      out.println("First error: " + firstError);
+    }
+    if (total > 0){
+      out.println(String.format("Latency ms: p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f",
+                                percentile(all, 0.5), percentile(all, 0.9), percentile(all, 0.99), percentile(all, 0.999), all[total - 1] / 1e6));
+    }
+  }
+
+  /**
+   * percentile
+   * Finds a percentile of sorted latencies
+   * @param sorted, the latencies in nanoseconds, smallest first
+   * @param fraction, the percentile from 0 to 1
+   * @return milliseconds, the latency at that percentile
+   */
+  private static double percentile(long[] sorted, double fraction){
+    int index = (int)Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+}//end of LoadGenerator class
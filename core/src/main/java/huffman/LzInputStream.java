@@ -0,0 +1,267 @@
+/* LzInputStream.java
+ * Purpose: Decompresses the data written by LzOutputStream, copying matches out of the bytes already decoded
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.InputStream;
+import java.io.IOException;
+
+public class LzInputStream extends InputStream{
+  //Variables
+  private static final int OUTPUT_SIZE = 1 << 16; //Bytes decoded at a time after the window
+  private BitInputStream bits;
+  private String name;
+  private byte[] buffer; //The window of bytes already read, then the bytes decoded but not read yet
+  private int window;
+  private int position; //Next byte to read
+  private int limit; //Index after the last byte decoded
+  private DecodeTable literals; //Tables of the current block, null between blocks
+  private DecodeTable distances;
+  private int stored; //Bytes of the current stored block not copied yet
+  private boolean lastBlock;
+  private boolean ended;
+
+  /**
+   * LzInputStream
+   * Constructor that reads the MZIP header of LZ data
+   * @param in, the MZIP data. Bits are read ahead, so nothing after the MZIP data should be read from it
+   */
+  public LzInputStream(InputStream in) throws IOException{
+    Decompression decompression = new Decompression();
+    String stored = decompression.readLine(in);
+    String tree = decompression.readLine(in);
+    if ((stored == null) || !"Z".equals(tree)){
+      throw new IOException("The MZIP data is not in LZ mode");
+    }
+    this.name = stored;
+    start(in, parseWindow(decompression.readLine(in)));
+  }
+
+  /**
+   * LzInputStream
+   * Constructor for data whose header was already read
+   * @param in, the MZIP data, positioned after the header
+   * @param window, the window size from the header
+   */
+  LzInputStream(InputStream in, int window){
+    start(in, window);
+  }
+
+  /**
+   * start
+   * Gets ready to decode the first block
+   * @param in, the MZIP data, positioned after the header
+   * @param window, the window size from the header
+   */
+  private void start(InputStream in, int window){
+    this.bits = new BitInputStream(in);
+    this.window = window;
+    this.buffer = new byte[window + OUTPUT_SIZE + MatchFinder.MAX_MATCH];
+    this.position = 0;
+    this.limit = 0;
+    this.stored = 0;
+    this.lastBlock = false;
+    this.ended = false;
+  }
+
+  /**
+   * parseWindow
+   * Reads the window size from the third line of an LZ header
+   * @param line, the third line of the header, e.g Z1048576
+   * @return window, the furthest back a copy may start
+   */
+  static int parseWindow(String line) throws IOException{
+    try{
+      int window = Integer.parseInt(line.substring(1));
+      if ((line.charAt(0) == 'Z') && (window >= LzOutputStream.MIN_WINDOW) && (window <= LzOutputStream.MAX_WINDOW) && (Integer.bitCount(window) == 1)){
+        return window;
+      }
+    } catch (RuntimeException e){ //Missing line, missing marker or not a number
+    }
+    throw new IOException("The window size in the header is not valid");
+  }
+
+  /**
+   * getName
+   * Gets the file name and extension stored in the header
+   * @return name, the stored name, or null if the header was read somewhere else
+   */
+  public String getName(){
+    return name;
+  }
+
+  /**
+   * read
+   * Reads one byte of the original data
+   * @return b, the byte from 0 to 255, or -1 at the end of the data
+   */
+  @Override
+  public int read() throws IOException{
+    if ((position == limit) && !decode()){
+      return -1;
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * read
+   * Reads bytes of the original data
+   * @param b, the array the bytes are put in
+   * @param off, the index of the first byte to fill
+   * @param len, the most bytes to read
+   * @return count, the number of bytes read, or -1 at the end of the data
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException{
+    if (len == 0){
+      return 0;
+    }
+    if ((position == limit) && !decode()){
+      return -1;
+    }
+    int count = Math.min(len, limit - position);
+    System.arraycopy(buffer, position, b, off, count);
+    position += count;
+    return count;
+  }
+
+  /**
+   * available
+   * Gets the number of decoded bytes that can be read without decoding more
+   * @return count, the bytes decoded but not read
+   */
+  @Override
+  public int available(){
+    return limit - position;
+  }
+
+  /**
+   * decode
+   * Decodes literals and matches until the buffer is full, the data ends or a flush point is reached. Every
+   * byte has been read when this is called, so once the buffer is full the last window of it is moved to the front
+   * @return found, false if the end of the data was reached
+   */
+  private boolean decode() throws IOException{
+    if (limit + MatchFinder.MAX_MATCH > buffer.length){
+      System.arraycopy(buffer, limit - window, buffer, 0, window);
+      limit = window;
+      position = window;
+    }
+    while (!ended && (limit + MatchFinder.MAX_MATCH <= buffer.length)){
+      if (stored > 0){
+        buffer[limit++] = (byte)bits.readBits(8);
+        stored--;
+        continue;
+      }
+      if (literals == null){
+        if (lastBlock){
+          ended = true;
+          break;
+        }
+        readBlockHeader();
+        if ((literals == null) && (stored == 0) && (position < limit)){ //A flush point, hand over what is decoded without waiting
+          break;
+        }
+        continue;
+      }
+      int symbol = literals.decode(bits);
+      if (symbol < LzOutputStream.END_OF_BLOCK){
+        buffer[limit++] = (byte)symbol;
+      } else if (symbol == LzOutputStream.END_OF_BLOCK){
+        literals = null;
+        checkCutOff();
+      } else {
+        symbol -= LzOutputStream.END_OF_BLOCK + 1;
+        int length = LzOutputStream.LENGTH_BASE[symbol] + readExtra(LzOutputStream.LENGTH_EXTRA[symbol]);
+        symbol = distances.decode(bits);
+        int distance = LzOutputStream.distanceBase(symbol) + readExtra(LzOutputStream.distanceExtra(symbol)) + 1;
+        if ((distance > limit) || (distance >= window)){
+          throw new IOException("The LZ data has a copy from before the start of the data");
+        }
+        for (int from = limit - distance, stop = limit + length; limit < stop; ){ //Byte by byte, a copy can overlap itself
+          buffer[limit++] = buffer[from++];
+        }
+      }
+    }
+    checkCutOff();
+    return position < limit;
+  }
+
+  /**
+   * readBlockHeader
+   * Reads the last block flag and the code lengths of a block, and builds its decode tables. A block with no
+   * literal code lengths is stored, only its length is read and its bytes are copied after
+   */
+  private void readBlockHeader() throws IOException{
+    lastBlock = bits.readBits(1) == 1;
+    int literalCount = bits.readBits(9);
+    if (literalCount == 0){
+      bits.alignToByte();
+      stored = bits.readBits(32);
+      checkCutOff();
+      if (stored < 0){
+        throw new IOException("The LZ data has a stored block that is too long");
+      }
+      return;
+    }
+    int[] literalLengths = readLengths(literalCount, LzOutputStream.LITERAL_SYMBOLS);
+    int[] distanceLengths = readLengths(bits.readBits(6), LzOutputStream.DISTANCE_SYMBOLS);
+    checkCutOff();
+    if (literalLengths[LzOutputStream.END_OF_BLOCK] == 0){
+      throw new IOException("The LZ data has a block with no end");
+    }
+    try{
+      literals = new DecodeTable(new CodeTable(literalLengths));
+      distances = new DecodeTable(new CodeTable(distanceLengths));
+    } catch (IllegalArgumentException e){
+      throw new IOException("The code lengths in the LZ data are not valid", e);
+    }
+  }
+
+  /**
+   * readLengths
+   * Reads code lengths of 4 bits, where a 0 starts a run of 0s, the rest are 0
+   * @param count, the number of lengths written, read before them
+   * @param size, the number of symbols in the alphabet
+   * @return lengths, the code length of every symbol
+   */
+  private int[] readLengths(int count, int size) throws IOException{
+    if (count > size){
+      throw new IOException("The LZ data has too many code lengths");
+    }
+    int[] lengths = new int[size];
+    for (int i = 0; i < count; ){
+      int length = bits.readBits(4);
+      if (length == 0){ //A run of symbols with no code
+        i += bits.readBits(5) + 1;
+      } else {
+        lengths[i++] = length;
+      }
+    }
+    return lengths;
+  }
+
+  /**
+   * readExtra
+   * Reads the extra bits after a length or distance symbol
+   * @param length, the number of bits, 0 or more
+   * @return value, the bits, 0 if there are none
+   */
+  private int readExtra(int length) throws IOException{
+    return (length == 0) ? 0 : bits.readBits(length);
+  }
+
+  /**
+   * checkCutOff
+   * Makes sure the bits used so far came from the stream and not from the padding after its end
+   */
+  private void checkCutOff() throws IOException{
+    if (bits.isPastEnd()){
+      throw new IOException("The LZ data is cut off");
+    }
+  }
+}//end of LzInputStream class
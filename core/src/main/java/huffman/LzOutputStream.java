@@ -0,0 +1,524 @@
+/* LzOutputStream.java
+ * Purpose: Compresses a stream by replacing repeated strings with copies of earlier ones, then huffman codes the literals, lengths and distances
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.OutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/* Format
+ * The data is a series of blocks in one bit stream. A block starts with 1 bit that is 1 for the last block,
+ * 9 bits for how many literal/length code lengths follow and 6 bits for how many distance code lengths follow,
+ * then those code lengths in 4 bits each, where a 0 is followed by 5 bits for a run of 1 to 32 symbols with no code.
+ * Its symbols come next: 0 to 255 are bytes, END_OF_BLOCK ends the block,
+ * and the symbols after it are match lengths, each followed by its extra bits, a distance symbol and the distance's
+ * extra bits. A block that would not be smaller coded is stored: its 9 bit count is 0, which a coded block never has
+ * as END_OF_BLOCK always has a code, then 0s to a whole byte, its length in 32 bits and its bytes as they are.
+ * An empty stored block is a flush point, everything before it can be decoded. The last block is padded to a whole byte
+ */
+public class LzOutputStream extends OutputStream{
+  //Variables
+  static final int MIN_WINDOW = 1 << 10;
+  static final int MAX_WINDOW = 1 << 24;
+  static final int DEFAULT_WINDOW = 1 << 20;
+  static final int END_OF_BLOCK = 256;
+  static final int LITERAL_SYMBOLS = 286; //Bytes, END_OF_BLOCK and 29 length symbols
+  static final int DISTANCE_SYMBOLS = 48; //Two for every power of two up to MAX_WINDOW
+  //First length and number of extra bits of each length symbol, the same as deflate
+  static final int[] LENGTH_BASE = {3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258};
+  static final int[] LENGTH_EXTRA = {0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0};
+  private static final int[] LENGTH_SYMBOL = new int[MatchFinder.MAX_MATCH + 1]; //Length symbol of every match length
+  private static final int BLOCK_TOKENS = 1 << 16; //Literals and matches coded with one pair of tables
+  private static final int BLOCK_BYTES = 1 << 20; //Most bytes of the original data in one block
+  private static final int TOO_FAR = 4096; //A shortest match further back than this costs more than its three literals
+  private static final int MIN_LOOKAHEAD = MatchFinder.MAX_MATCH + MatchFinder.MIN_MATCH + 1; //Bytes ahead needed before a match is looked for
+  private static final int STORED_HEADER_BITS = 9 + 7 + 32; //Most bits before the bytes of a stored block, with the padding
+  private static final int CODED_HEADER_BITS = 9 + 6; //Bits of the two counts before the code lengths of a coded block
+  private OutputStream out;
+  private BitOutputStream bits;
+  private Compression<String> compression;
+  private MatchFinder finder;
+  private byte[] data;
+  private int window;
+  private int position; //Next byte to look for a match at
+  private int end; //Index after the last byte written
+  private int previousLength; //Match found at the byte before position, for lazy matching
+  private int previousDistance;
+  private boolean literalWaiting; //The byte before position is not coded yet
+  private int[] tokenLengths; //0 for a literal, otherwise the length of a match
+  private int[] tokenValues; //The byte of a literal or the distance of a match
+  private int tokens;
+  private byte[] blockBytes; //The original bytes of the block, coded as literals if that is smaller
+  private int blockLength;
+  private long[] literalCounts;
+  private long[] distanceCounts;
+  private HuffmanTree literalTree;
+  private HuffmanTree distanceTree;
+  private boolean unflushed; //Bytes were written since the last flush
+  private boolean finished;
+
+  static{
+    for (int symbol = 0; symbol < LENGTH_BASE.length; symbol++){
+      int last = (symbol == LENGTH_BASE.length - 1) ? MatchFinder.MAX_MATCH : LENGTH_BASE[symbol + 1] - 1;
+      for (int length = LENGTH_BASE[symbol]; length <= last; length++){
+        LENGTH_SYMBOL[length] = symbol;
+      }
+    }
+  }
+
+  /**
+   * LzOutputStream
+   * Constructor that writes the MZIP header and looks for matches with the default window and level
+   * @param out, the stream the MZIP data is written to
+   * @param name, the file name and extension stored in the header, e.g app.log
+   */
+  public LzOutputStream(OutputStream out, String name) throws IOException{
+    this(out, name, MatchFinder.DEFAULT_LEVEL, DEFAULT_WINDOW);
+  }
+
+  /**
+   * LzOutputStream
+   * Constructor that writes the MZIP header. A bigger window finds copies from further back but the decoder needs as much memory;
+   * a higher level looks at more earlier copies to find longer ones
+   * @param out, the stream the MZIP data is written to
+   * @param name, the file name and extension stored in the header, e.g app.log
+   * @param level, the effort from 1 (fastest) to 9 (smallest output)
+   * @param window, the furthest back a copy may start, a power of two from MIN_WINDOW to MAX_WINDOW
+   */
+  public LzOutputStream(OutputStream out, String name, int level, int window) throws IOException{
+    if ((window < MIN_WINDOW) || (window > MAX_WINDOW) || (Integer.bitCount(window) != 1)){
+      throw new IllegalArgumentException("The window must be a power of two from " + MIN_WINDOW + " to " + MAX_WINDOW);
+    }
+    this.finder = new MatchFinder(window, level);
+    this.out = out;
+    this.compression = new Compression<String>();
+    String[] parts = Compression.splitName(name);
+    compression.writeHeader(out, parts[0], parts[1], "Z", "Z" + window);
+    this.bits = new BitOutputStream(out);
+    this.data = finder.getData();
+    this.window = window;
+    this.position = 0;
+    this.end = 0;
+    this.previousLength = MatchFinder.MIN_MATCH - 1;
+    this.literalWaiting = false;
+    this.tokenLengths = new int[BLOCK_TOKENS];
+    this.tokenValues = new int[BLOCK_TOKENS];
+    this.tokens = 0;
+    this.blockBytes = new byte[BLOCK_BYTES];
+    this.blockLength = 0;
+    this.literalCounts = new long[LITERAL_SYMBOLS];
+    this.distanceCounts = new long[DISTANCE_SYMBOLS];
+    this.literalTree = new HuffmanTree(LITERAL_SYMBOLS);
+    this.distanceTree = new HuffmanTree(DISTANCE_SYMBOLS);
+    this.unflushed = false;
+    this.finished = false;
+  }
+
+  /**
+   * write
+   * Adds one byte to the data
+   * @param b, the byte in the lowest 8 bits
+   */
+  @Override
+  public void write(int b) throws IOException{
+    write(new byte[] {(byte)b}, 0, 1);
+  }
+
+  /**
+   * write
+   * Adds a range of bytes to the data, coding what has enough bytes after it to be matched
+   * @param b, the array holding the bytes
+   * @param off, the index of the first byte
+   * @param len, the number of bytes
+   */
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException{
+    if (finished){
+      throw new IOException("The stream is already finished");
+    }
+    unflushed |= len > 0;
+    while (len > 0){
+      if (end == data.length){ //The lookahead is at the end of the second window, so the first is no longer needed
+        finder.slide();
+        position -= window;
+        end -= window;
+      }
+      int count = Math.min(len, data.length - end);
+      System.arraycopy(b, off, data, end, count);
+      end += count;
+      off += count;
+      len -= count;
+      parse(MIN_LOOKAHEAD);
+    }
+  }
+
+  /**
+   * flush
+   * Codes every byte written so far, even the ones a match could still have grown into, ends the block and
+   * writes an empty stored block, which pads the data to a whole byte, so a reader can decode it without waiting
+   * for more data. Later bytes can still be copies of earlier ones. Each flush costs a few bytes and may give
+   * shorter matches, so only flush when the data stops for a while
+   */
+  @Override
+  public void flush() throws IOException{
+    if (finished || !unflushed){
+      return;
+    }
+    parse(1);
+    if (literalWaiting){
+      addLiteral(data[position - 1]);
+      literalWaiting = false;
+      previousLength = MatchFinder.MIN_MATCH - 1;
+    }
+    if (blockLength > 0){
+      writeBlock(false);
+    }
+    writeStored(false);
+    bits.flush(); //Already a whole byte, so nothing is added
+    unflushed = false;
+  }
+
+  /**
+   * finish
+   * Codes the rest of the data and writes the last block, without closing the stream underneath
+   */
+  public void finish() throws IOException{
+    if (finished){
+      return;
+    }
+    parse(1);
+    if (literalWaiting){
+      addLiteral(data[position - 1]);
+      literalWaiting = false;
+    }
+    writeBlock(true);
+    finished = true;
+  }
+
+  /**
+   * close
+   * Writes the end of the data and closes the stream underneath
+   */
+  @Override
+  public void close() throws IOException{
+    try{
+      finish();
+    } finally{
+      out.close();
+    }
+  }
+
+  /**
+   * parse
+   * Turns the bytes into literals and matches while enough bytes are waiting after the position.
+   * At the lazy levels a match is only taken if the byte after it does not start a longer one
+   * @param lookahead, the fewest bytes that must be waiting, 1 at the end of the data
+   */
+  private void parse(int lookahead) throws IOException{
+    int minLength = MatchFinder.MIN_MATCH - 1;
+    while (end - position >= lookahead){
+      int candidate = (end - position >= MatchFinder.MIN_MATCH) ? finder.insert(position) : -1;
+      int length = 0;
+      int distance = 0;
+      if ((candidate >= 0) && (!finder.isLazy() || (previousLength < finder.getNiceLength()))){
+        length = finder.findMatch(candidate, position, end, finder.isLazy() ? previousLength : minLength);
+        distance = finder.getDistance();
+        if ((length == MatchFinder.MIN_MATCH) && (distance > TOO_FAR)){
+          length = 0;
+        }
+      }
+      if (!finder.isLazy()){
+        if (length > minLength){
+          addMatch(position, length, distance);
+          insertAll(position + 1, position + length);
+          position += length;
+        } else {
+          addLiteral(data[position]);
+          position++;
+        }
+      } else if ((previousLength > minLength) && (length <= previousLength)){ //The match at the byte before is the better one
+        addMatch(position - 1, previousLength, previousDistance);
+        int stop = position - 1 + previousLength;
+        insertAll(position + 1, stop);
+        position = stop;
+        literalWaiting = false;
+        previousLength = minLength;
+      } else {
+        if (literalWaiting){
+          addLiteral(data[position - 1]);
+        }
+        literalWaiting = true;
+        previousLength = Math.max(length, minLength);
+        previousDistance = distance;
+        position++;
+      }
+    }
+  }
+
+  /**
+   * insertAll
+   * Adds the positions inside a match to the chains, so later copies can start there
+   * @param start, the first position
+   * @param stop, the position after the last one
+   */
+  private void insertAll(int start, int stop){
+    stop = Math.min(stop, end - MatchFinder.MIN_MATCH + 1);
+    for (int i = start; i < stop; i++){
+      finder.insert(i);
+    }
+  }
+
+  /**
+   * addLiteral
+   * Adds a byte that is coded as itself
+   * @param b, the byte
+   */
+  private void addLiteral(byte b) throws IOException{
+    tokenLengths[tokens] = 0;
+    tokenValues[tokens] = b & 0xFF;
+    blockBytes[blockLength++] = b;
+    if ((++tokens == BLOCK_TOKENS) || (blockLength > BLOCK_BYTES - MatchFinder.MAX_MATCH)){
+      writeBlock(false);
+    }
+  }
+
+  /**
+   * addMatch
+   * Adds a copy of earlier bytes
+   * @param start, the index in the data of the bytes the copy stands for
+   * @param length, the number of bytes copied
+   * @param distance, how far back the copy starts
+   */
+  private void addMatch(int start, int length, int distance) throws IOException{
+    tokenLengths[tokens] = length;
+    tokenValues[tokens] = distance;
+    System.arraycopy(data, start, blockBytes, blockLength, length);
+    blockLength += length;
+    if ((++tokens == BLOCK_TOKENS) || (blockLength > BLOCK_BYTES - MatchFinder.MAX_MATCH)){
+      writeBlock(false);
+    }
+  }
+
+  /**
+   * writeBlock
+   * Builds the two code tables from the waiting literals and matches, then writes the block. Matches only pay
+   * off on repeated data, so if coding every byte of the block as a literal is smaller, that is written instead,
+   * and if the bytes as they are would be smaller still, the block is stored
+   * @param last, true if no block comes after this one
+   */
+  private void writeBlock(boolean last) throws IOException{
+    Arrays.fill(literalCounts, 0);
+    Arrays.fill(distanceCounts, 0);
+    long extraBits = 0; //Bits after the length and distance symbols
+    for (int i = 0; i < tokens; i++){
+      if (tokenLengths[i] == 0){
+        literalCounts[tokenValues[i]]++;
+      } else {
+        int symbol = LENGTH_SYMBOL[tokenLengths[i]];
+        literalCounts[END_OF_BLOCK + 1 + symbol]++;
+        int distanceSymbol = distanceSymbol(tokenValues[i]);
+        distanceCounts[distanceSymbol]++;
+        extraBits += LENGTH_EXTRA[symbol] + distanceExtra(distanceSymbol);
+      }
+    }
+    literalCounts[END_OF_BLOCK]++;
+    CodeTable literals = compression.makeCodeTable(literalTree.build(literalCounts), literalCounts, Compression.MAX_CODE_LENGTH);
+    CodeTable distances = compression.makeCodeTable(distanceTree.build(distanceCounts), distanceCounts, Compression.MAX_CODE_LENGTH);
+    long matchBits = cost(literals, literalCounts) + cost(distances, distanceCounts) + extraBits + lengthsBits(literals) + lengthsBits(distances);
+
+    boolean plain = false;
+    long codedBits = matchBits;
+    if (tokens < blockLength){ //There are matches, see what the block costs without them
+      Arrays.fill(literalCounts, 0);
+      for (int i = 0; i < blockLength; i++){
+        literalCounts[blockBytes[i] & 0xFF]++;
+      }
+      literalCounts[END_OF_BLOCK]++;
+      CodeTable plainTable = compression.makeCodeTable(literalTree.build(literalCounts), literalCounts, Compression.MAX_CODE_LENGTH);
+      long plainBits = cost(plainTable, literalCounts) + lengthsBits(plainTable);
+      if (plainBits < matchBits){
+        literals = plainTable;
+        distances = new CodeTable(new int[DISTANCE_SYMBOLS]);
+        plain = true;
+        codedBits = plainBits;
+      }
+    }
+    if (STORED_HEADER_BITS + 8L * blockLength < CODED_HEADER_BITS + codedBits){ //Random or already compressed
+      writeStored(last);
+      return;
+    }
+
+    bits.writeBits(last ? 1 : 0, 1);
+    writeLengths(literals, 9);
+    writeLengths(distances, 6);
+    if (plain){
+      compression.encode(literals, blockBytes, 0, blockLength, bits);
+      tokens = 0;
+    }
+    for (int i = 0; i < tokens; i++){
+      int length = tokenLengths[i];
+      if (length == 0){
+        compression.encode(literals, tokenValues[i], bits);
+      } else {
+        int symbol = LENGTH_SYMBOL[length];
+        compression.encode(literals, END_OF_BLOCK + 1 + symbol, bits);
+        bits.writeBits(length - LENGTH_BASE[symbol], LENGTH_EXTRA[symbol]);
+        int distance = tokenValues[i] - 1;
+        symbol = distanceSymbol(tokenValues[i]);
+        compression.encode(distances, symbol, bits);
+        bits.writeBits(distance - distanceBase(symbol), distanceExtra(symbol));
+      }
+    }
+    compression.encode(literals, END_OF_BLOCK, bits);
+    tokens = 0;
+    blockLength = 0;
+    if (last){
+      bits.flush();
+    }
+  }
+
+  /**
+   * writeStored
+   * Writes the bytes of the block as they are: a count of 0 literal code lengths, 0s to a whole byte, the length
+   * in 32 bits, then the bytes
+   * @param last, true if no block comes after this one
+   */
+  private void writeStored(boolean last) throws IOException{
+    bits.writeBits(last ? 1 : 0, 1);
+    bits.writeBits(0, 9);
+    bits.writeBits(0, (int)((8 - (bits.getBitsWritten() & 7)) & 7)); //The header was written before the bits, so this is a whole byte of the file
+    bits.writeBits(blockLength, 32);
+    for (int i = 0; i < blockLength; i++){
+      bits.writeBits(blockBytes[i] & 0xFF, 8);
+    }
+    tokens = 0;
+    blockLength = 0;
+    if (last){
+      bits.flush();
+    }
+  }
+
+  /**
+   * cost
+   * Finds the bits the symbols of a block take with a code table
+   * @param table, the code table
+   * @param counts, the count of every symbol
+   * @return bits, the total length of their codes
+   */
+  private static long cost(CodeTable table, long[] counts){
+    long bits = 0;
+    for (int i = 0; i < counts.length; i++){
+      bits += counts[i] * table.getLength(i);
+    }
+    return bits;
+  }
+
+  /**
+   * lengthCount
+   * Finds how many code lengths are written, the 0s at the end are left out
+   * @param table, the code table
+   * @return count, the number of lengths
+   */
+  private static int lengthCount(CodeTable table){
+    int count = table.size();
+    while ((count > 0) && (table.getLength(count - 1) == 0)){
+      count--;
+    }
+    return count;
+  }
+
+  /**
+   * lengthsBits
+   * Finds the bits writeLengths takes for the code lengths of a table, not counting the count
+   * @param table, the code table
+   * @return bits, the size of the code lengths
+   */
+  private static long lengthsBits(CodeTable table){
+    long bits = 0;
+    int count = lengthCount(table);
+    for (int i = 0; i < count; ){
+      int run = zeroRun(table, i, count);
+      bits += (run > 0) ? 9 : 4;
+      i += Math.max(run, 1);
+    }
+    return bits;
+  }
+
+  /**
+   * zeroRun
+   * Finds how many symbols from a position have no code, up to the longest run one 0 can stand for
+   * @param table, the code table
+   * @param start, the first symbol
+   * @param count, the number of lengths written
+   * @return run, the number of symbols with no code, 0 if the first one has a code
+   */
+  private static int zeroRun(CodeTable table, int start, int count){
+    int run = 0;
+    while ((start + run < count) && (run < 32) && (table.getLength(start + run) == 0)){
+      run++;
+    }
+    return run;
+  }
+
+  /**
+   * writeLengths
+   * Writes how many code lengths follow, then each in 4 bits, with runs of 0s shortened and the 0s at the end left out
+   * @param table, the code table
+   * @param countBits, the bits used for the count
+   */
+  private void writeLengths(CodeTable table, int countBits) throws IOException{
+    int count = lengthCount(table);
+    bits.writeBits(count, countBits);
+    for (int i = 0; i < count; ){
+      int run = zeroRun(table, i, count);
+      if (run > 0){
+        bits.writeBits(0, 4);
+        bits.writeBits(run - 1, 5);
+        i += run;
+      } else {
+        bits.writeBits(table.getLength(i), 4);
+        i++;
+      }
+    }
+  }
+
+  /**
+   * distanceSymbol
+   * Finds the symbol of a distance: 0 to 3 for distances 1 to 4, then two symbols for every power of two
+   * @param distance, how far back a copy starts, from 1
+   * @return symbol, the distance symbol
+   */
+  static int distanceSymbol(int distance){
+    int d = distance - 1;
+    if (d < 4){
+      return d;
+    }
+    int top = 31 - Integer.numberOfLeadingZeros(d); //Highest bit, the bit under it picks one of the two symbols
+    return 2 * top + ((d >>> (top - 1)) & 1);
+  }
+
+  /**
+   * distanceExtra
+   * Finds the number of extra bits after a distance symbol
+   * @param symbol, the distance symbol
+   * @return extra, the number of bits
+   */
+  static int distanceExtra(int symbol){
+    return (symbol < 4) ? 0 : (symbol >>> 1) - 1;
+  }
+
+  /**
+   * distanceBase
+   * Finds the smallest distance less one of a distance symbol
+   * @param symbol, the distance symbol
+   * @return base, the distance less one that the extra bits are added to
+   */
+  static int distanceBase(int symbol){
+    return (symbol < 4) ? symbol : (2 | (symbol & 1)) << distanceExtra(symbol);
+  }
+}//end of LzOutputStream class
@@ -0,0 +1,109 @@
+/* MappedInput.java
+ * Purpose: Reads a file in large blocks through a memory mapped view of it
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.RandomAccessFile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+class MappedInput{
+  //Variables
+  private static final long WINDOW = 1L << 30; //Most bytes mapped at once, bigger files are mapped one window at a time
+  private static final int DIRECT_SIZE = 1 << 22; //Size of the buffer used when the file cannot be mapped
+  private RandomAccessFile file;
+  private FileChannel channel;
+  private long size;
+  private long position; //Where the next window or read starts in the file
+  private ByteBuffer window; //The part of the file currently being read
+  private boolean mapped;
+
+  /**
+   * MappedInput
+   * Constructor that opens a file to be read from the start
+   * @param fileName, the name of the file to read
+   */
+  MappedInput(String fileName) throws IOException{
+    this.file = new RandomAccessFile(fileName, "r");
+    this.channel = file.getChannel();
+    this.size = channel.size();
+    this.position = 0;
+    this.window = null;
+    this.mapped = true;
+  }
+
+  /**
+   * size
+   * Gets the size of the file
+   * @return size, the number of bytes in the file
+   */
+  public long size(){
+    return size;
+  }
+
+  /**
+   * read
+   * Copies the next bytes of the file into an array
+   * @param dst, the array the bytes are copied into
+   * @return count, the number of bytes copied, or -1 if the file has ended
+   */
+  public int read(byte[] dst) throws IOException{
+    if ((window == null) || !window.hasRemaining()){
+      if (!nextWindow()){
+        return -1;
+      }
+    }
+    int count = Math.min(dst.length, window.remaining());
+    window.get(dst, 0, count);
+    return count;
+  }
+
+  /**
+   * nextWindow
+   * Maps the next part of the file, or reads it into a direct buffer if it cannot be mapped
+   * @return Boolean, true if there is more of the file, false if it has ended
+   */
+  private boolean nextWindow() throws IOException{
+    if (position >= size){
+      return false;
+    }
+    long length = Math.min(WINDOW, size - position);
+    if (mapped){
+      try{
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        position += length;
+        window = map;
+        return true;
+      } catch (IOException e){ //Not enough address space or the file system cannot map, read into a buffer instead
+        mapped = false;
+        window = ByteBuffer.allocateDirect(DIRECT_SIZE);
+      } catch (UnsupportedOperationException e){
+        mapped = false;
+        window = ByteBuffer.allocateDirect(DIRECT_SIZE);
+      }
+    }
+    window.clear();
+    int count = channel.read(window, position);
+    if (count <= 0){ //File got shorter while it was being read
+      return false;
+    }
+    position += count;
+    window.flip();
+    return true;
+  }
+
+  /**
+   * close
+   * Closes the file
+   */
+  public void close() throws IOException{
+    window = null;
+    file.close();
+  }
+}//end of MappedInput class
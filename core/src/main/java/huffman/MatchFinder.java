@@ -0,0 +1,160 @@
+/* MatchFinder.java
+ * Purpose: Finds earlier copies of the bytes ahead in a sliding window, with hash chains of every position that starts the same three bytes
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.util.Arrays;
+
+class MatchFinder{
+  //Variables
+  static final int MIN_MATCH = 3; //Shorter copies cost more than the literals
+  static final int MAX_MATCH = 258;
+  static final int MIN_LEVEL = 1;
+  static final int MAX_LEVEL = 9;
+  static final int DEFAULT_LEVEL = 6;
+  private static final int HASH_BITS = 16;
+  private static final int NIL = -1; //No position
+  //Positions looked at for each match, the length that cuts that to a quarter, the length that ends the search early,
+  //and whether to try the next byte too, by level
+  private static final int[] MAX_CHAIN = {0, 4, 8, 16, 16, 32, 128, 256, 1024, 4096};
+  private static final int[] GOOD_LENGTH = {0, 4, 4, 4, 4, 8, 8, 8, 32, 32};
+  private static final int[] NICE_LENGTH = {0, 8, 16, 32, 16, 32, 128, 128, 258, 258};
+  private static final boolean[] LAZY = {false, false, false, false, true, true, true, true, true, true};
+  private byte[] data; //Two windows: the one matches come from, and the one being filled
+  private int window;
+  private int[] head; //Latest position with each hash
+  private int[] prev; //Position before it with the same hash, indexed by position within the window
+  private int maxChain;
+  private int goodLength;
+  private int niceLength;
+  private boolean lazy;
+  private int distance; //Of the last match found
+
+  /**
+   * MatchFinder
+   * Constructor that makes the window and empty chains
+   * @param window, the furthest back a match may start, a power of two
+   * @param level, the effort from MIN_LEVEL (fastest) to MAX_LEVEL (smallest output)
+   */
+  MatchFinder(int window, int level){
+    if ((level < MIN_LEVEL) || (level > MAX_LEVEL)){
+      throw new IllegalArgumentException("The level must be from " + MIN_LEVEL + " to " + MAX_LEVEL);
+    }
+    this.data = new byte[2 * window];
+    this.window = window;
+    this.head = new int[1 << HASH_BITS];
+    this.prev = new int[window];
+    Arrays.fill(head, NIL);
+    Arrays.fill(prev, NIL);
+    this.maxChain = MAX_CHAIN[level];
+    this.goodLength = GOOD_LENGTH[level];
+    this.niceLength = NICE_LENGTH[level];
+    this.lazy = LAZY[level];
+  }
+
+  /**
+   * getData
+   * Gets the window the bytes to match are put in
+   * @return data, the array of two windows
+   */
+  byte[] getData(){
+    return data;
+  }
+
+  /**
+   * isLazy
+   * Checks if a match should only be taken after trying the byte after it
+   * @return lazy, true for the higher levels
+   */
+  boolean isLazy(){
+    return lazy;
+  }
+
+  /**
+   * getNiceLength
+   * Gets the match length that is long enough to stop looking for a longer one
+   * @return niceLength, the length for this level
+   */
+  int getNiceLength(){
+    return niceLength;
+  }
+
+  /**
+   * getDistance
+   * Gets how far back the last match found starts
+   * @return distance, from 1 to the window size less one
+   */
+  int getDistance(){
+    return distance;
+  }
+
+  /**
+   * insert
+   * Adds a position to the chain of its three bytes
+   * @param position, the index in the data, with at least MIN_MATCH bytes from it
+   * @return candidate, the latest earlier position with the same hash, or -1 if there is none
+   */
+  int insert(int position){
+    int hash = ((((data[position] & 0xFF) << 16) | ((data[position + 1] & 0xFF) << 8) | (data[position + 2] & 0xFF)) * 0x9E3779B1) >>> (32 - HASH_BITS);
+    int candidate = head[hash];
+    prev[position & (window - 1)] = candidate;
+    head[hash] = position;
+    return candidate;
+  }
+
+  /**
+   * findMatch
+   * Walks the chain from a candidate for the longest earlier copy of the bytes at a position
+   * @param candidate, the first earlier position to try, as returned by insert
+   * @param position, the index of the bytes to match
+   * @param end, the index after the last byte that can be matched
+   * @param longerThan, the length a match has to beat
+   * @return length, the length of the longest match found, or 0 if none is longer than longerThan
+   */
+  int findMatch(int candidate, int position, int end, int longerThan){
+    int limit = Math.min(MAX_MATCH, end - position);
+    int best = Math.max(longerThan, MIN_MATCH - 1);
+    if (best >= limit){
+      return 0;
+    }
+    int found = 0;
+    int chain = (best >= goodLength) ? maxChain >> 2 : maxChain; //Already have a good match, do not look as hard for a better one
+    //A position a whole window back shares its prev entry with the current one, so stop just before it
+    while ((candidate >= 0) && (position - candidate < window) && (chain-- > 0)){
+      if ((data[candidate + best] == data[position + best]) && (data[candidate] == data[position])){
+        int length = 1;
+        while ((length < limit) && (data[candidate + length] == data[position + length])){
+          length++;
+        }
+        if (length > best){
+          best = length;
+          found = length;
+          distance = position - candidate;
+          if ((length >= niceLength) || (length == limit)){
+            break;
+          }
+        }
+      }
+      candidate = prev[candidate & (window - 1)];
+    }
+    return found;
+  }
+
+  /**
+   * slide
+   * Moves the second window down over the first, so more bytes fit. Every position goes down by the window size
+   */
+  void slide(){
+    System.arraycopy(data, window, data, 0, window);
+    for (int i = 0; i < head.length; i++){
+      head[i] = (head[i] >= window) ? head[i] - window : NIL;
+    }
+    for (int i = 0; i < prev.length; i++){
+      prev[i] = (prev[i] >= window) ? prev[i] - window : NIL;
+    }
+  }
+}//end of MatchFinder class
@@ -0,0 +1,317 @@
+/* Metrics.java
+ * Purpose: Times the stages of compression and reports them as JFR events and to a MetricsListener, doing nothing when neither is on
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.FilterOutputStream;
+import java.io.OutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+public class Metrics{
+  //Variables
+  private static volatile MetricsListener listener;
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  /**
+   * setListener
+   * Sends every stage and summary to a listener from now on
+   * @param newListener, the listener, or null to stop
+   */
+  public static void setListener(MetricsListener newListener){
+    listener = newListener;
+  }
+
+  /**
+   * printTo
+   * Makes a listener that prints one line for every stage and summary
+   * @param out, the stream the lines are printed to
+   * @return listener, the listener
+   */
+  public static MetricsListener printTo(PrintStream out){
+    return new MetricsListener(){
+      @Override
+      public void stage(String stage, String file, long nanos, long bytesIn, long bytesOut, long allocatedBytes){
+        double seconds = nanos / 1e9;
+        out.println(String.format("%-7s %10.3f ms %12d in %12d out %9.1f MB/s %12d allocated  %s",
+                                  stage, nanos / 1e6, bytesIn, bytesOut, (seconds > 0) ? bytesIn / seconds / 1e6 : 0.0, allocatedBytes, file));
+      }
+
+      @Override
+      public void compressed(String file, long originalBytes, long compressedBytes, double entropy, double averageCodeLength){
+        out.println(String.format("summary %12d -> %12d bytes, entropy %.4f, code %.4f, achieved %.4f bits per byte  %s",
+                                  originalBytes, compressedBytes, entropy, averageCodeLength,
+                                  (originalBytes > 0) ? compressedBytes * 8.0 / originalBytes : 0.0, file));
+      }
+    };
+  }
+
+  /**
+   * start
+   * Starts timing a stage. Costs a single small allocation when no one is listening and JFR is not recording it
+   * @param stage, the name of the stage
+   * @param file, the file being compressed
+   * @return timer, the timer to stop, or null if the stage is not being measured
+   */
+  static Timer start(String stage, String file){
+    StageEvent event = new StageEvent();
+    MetricsListener current = listener;
+    if (!event.isEnabled() && (current == null)){
+      return null;
+    }
+    return new Timer(stage, file, event, current);
+  }
+
+  /**
+   * stop
+   * Stops timing a stage and reports it
+   * @param timer, the timer from start, may be null
+   * @param bytesIn, the bytes the stage read
+   * @param bytesOut, the bytes the stage wrote
+   */
+  static void stop(Timer timer, long bytesIn, long bytesOut){
+    if (timer != null){
+      timer.stop(bytesIn, bytesOut);
+    }
+  }
+
+  /**
+   * isEnabled
+   * Checks if anything would be reported, so extra work for the measurements can be skipped
+   * @return enabled, true if there is a listener or JFR is recording compression summaries
+   */
+  static boolean isEnabled(){
+    return (listener != null) || new CompressionEvent().isEnabled();
+  }
+
+  /**
+   * compressed
+   * Reports how well a file was compressed: the entropy of its counts against the code table it got
+   * @param file, the file that was compressed
+   * @param originalBytes, the size of the file
+   * @param frequency, the count of each byte from 0 to 255, or an estimate of it
+   * @param table, the code table the data was encoded with
+   * @param compressedBytes, the size of the MZIP data
+   */
+  static void compressed(String file, long originalBytes, long[] frequency, CodeTable table, long compressedBytes){
+    CompressionEvent event = new CompressionEvent();
+    MetricsListener current = listener;
+    if (!event.isEnabled() && (current == null)){
+      return;
+    }
+    long total = 0;
+    long bits = 0;
+    for (int i = 0; i < 256; i++){
+      total += frequency[i];
+      bits += frequency[i] * table.getLength(i);
+    }
+    double entropy = 0;
+    for (int i = 0; i < 256; i++){
+      if (frequency[i] > 0){
+        double p = (double)frequency[i] / total;
+        entropy -= p * Math.log(p) / Math.log(2);
+      }
+    }
+    double averageCodeLength = (total > 0) ? (double)bits / total : 0;
+    if (event.isEnabled()){
+      event.file = file;
+      event.originalBytes = originalBytes;
+      event.compressedBytes = compressedBytes;
+      event.entropy = entropy;
+      event.averageCodeLength = averageCodeLength;
+      event.achievedBits = (originalBytes > 0) ? compressedBytes * 8.0 / originalBytes : 0;
+      event.commit();
+    }
+    if (current != null){
+      current.compressed(file, originalBytes, compressedBytes, entropy, averageCodeLength);
+    }
+  }
+
+  /**
+   * allocatedBytes
+   * Gets the bytes allocated so far by the current thread
+   * @return allocated, the bytes, or -1 if the JVM cannot tell
+   */
+  private static long allocatedBytes(){
+    if (THREADS instanceof com.sun.management.ThreadMXBean){
+      return ((com.sun.management.ThreadMXBean)THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  /* Timer
+   * One stage being measured
+   */
+  static class Timer{
+    private String stage;
+    private String file;
+    private StageEvent event;
+    private MetricsListener listener;
+    private long start;
+    private long allocated;
+
+    /**
+     * Timer
+     * Constructor that starts the clock, the JFR event and the allocation count
+     * @param stage, the name of the stage
+     * @param file, the file being compressed
+     * @param event, the JFR event for the stage
+     * @param listener, the listener, or null
+     */
+    Timer(String stage, String file, StageEvent event, MetricsListener listener){
+      this.stage = stage;
+      this.file = (file == null) ? "" : file;
+      this.event = event;
+      this.listener = listener;
+      this.allocated = allocatedBytes();
+      this.start = System.nanoTime();
+      event.begin();
+    }
+
+    /**
+     * stop
+     * Stops the clock and reports the stage
+     * @param bytesIn, the bytes the stage read
+     * @param bytesOut, the bytes the stage wrote
+     */
+    void stop(long bytesIn, long bytesOut){
+      long nanos = System.nanoTime() - start;
+      long now = allocatedBytes();
+      long allocatedBytes = ((now < 0) || (allocated < 0)) ? -1 : now - allocated;
+      if (event.isEnabled()){
+        event.end();
+        event.stage = stage;
+        event.file = file;
+        event.bytesIn = bytesIn;
+        event.bytesOut = bytesOut;
+        event.allocated = allocatedBytes;
+        event.throughput = (nanos > 0) ? bytesIn * 1e3 / nanos : 0; //Bytes per nanosecond times 1000 is MB/s
+        event.commit();
+      }
+      if (listener != null){
+        listener.stage(stage, file, nanos, bytesIn, bytesOut, allocatedBytes);
+      }
+    }
+  }
+
+  /* CountingOutputStream
+   * Counts the bytes written through it, for the size of the MZIP data
+   */
+  static class CountingOutputStream extends FilterOutputStream{
+    private long count;
+
+    /**
+     * CountingOutputStream
+     * Constructor that counts from 0
+     * @param out, the stream the bytes go on to
+     */
+    CountingOutputStream(OutputStream out){
+      super(out);
+      this.count = 0;
+    }
+
+    /**
+     * write
+     * Writes and counts one byte
+     * @param b, the byte in the lowest 8 bits
+     */
+    @Override
+    public void write(int b) throws IOException{
+      out.write(b);
+      count++;
+    }
+
+    /**
+     * write
+     * Writes and counts a range of bytes
+     * @param b, the array holding the bytes
+     * @param off, the index of the first byte
+     * @param len, the number of bytes
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException{
+      out.write(b, off, len);
+      count += len;
+    }
+
+    /**
+     * getCount
+     * Gets the number of bytes written
+     * @return count, the number of bytes
+     */
+    long getCount(){
+      return count;
+    }
+  }
+
+  /* StageEvent
+   * JFR event for one stage, its duration is the wall time of the stage
+   */
+  @Name("huffman.Stage")
+  @Label("Compression Stage")
+  @Category("Huffman")
+  @Description("One stage of compressing a file")
+  static class StageEvent extends Event{
+    @Label("Stage")
+    String stage;
+
+    @Label("File")
+    String file;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("Throughput (MB/s)")
+    double throughput;
+  }
+
+  /* CompressionEvent
+   * JFR event with the summary of one compressed file
+   */
+  @Name("huffman.Compression")
+  @Label("Compressed File")
+  @Category("Huffman")
+  @Description("How well a file was compressed, against the entropy of its byte counts")
+  static class CompressionEvent extends Event{
+    @Label("File")
+    String file;
+
+    @Label("Original Size")
+    @DataAmount
+    long originalBytes;
+
+    @Label("Compressed Size")
+    @DataAmount
+    long compressedBytes;
+
+    @Label("Entropy (bits per byte)")
+    double entropy;
+
+    @Label("Average Code Length (bits per byte)")
+    double averageCodeLength;
+
+    @Label("Achieved (bits per byte)")
+    double achievedBits;
+  }
+}//end of Metrics class
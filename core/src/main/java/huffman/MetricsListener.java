@@ -0,0 +1,33 @@
+/* MetricsListener.java
+ * Purpose: Receives the measurements of every compression run, e.g to pass them on to a metrics registry
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+public interface MetricsListener{
+
+  /**
+   * stage
+   * Called when a stage of compression finishes
+   * @param stage, the stage: count, queue, tree, codes, encode or write
+   * @param file, the file being compressed, empty for the stages that build the code table
+   * @param nanos, the wall time of the stage
+   * @param bytesIn, the bytes the stage read, 0 for the stages that build the code table
+   * @param bytesOut, the bytes the stage wrote, 0 for the stages that only count or build
+   * @param allocatedBytes, the bytes allocated by the thread that ran the stage, or -1 if the JVM cannot tell
+   */
+  void stage(String stage, String file, long nanos, long bytesIn, long bytesOut, long allocatedBytes);
+
+  /**
+   * compressed
+   * Called when a file has been compressed, with how close the codes came to the best possible
+   * @param file, the file that was compressed
+   * @param originalBytes, the size of the file
+   * @param compressedBytes, the size of the MZIP data, header included
+   * @param entropy, the Shannon entropy of the byte counts in bits per byte, the least any code could use
+   * @param averageCodeLength, the bits per byte the code table uses for the data, not counting the header
+   */
+  void compressed(String file, long originalBytes, long compressedBytes, double entropy, double averageCodeLength);
+}//end of MetricsListener interface
@@ -3,12 +3,15 @@
  * Creator: Shi Han Qin 
  * Date: 2019-04-01
  */
+
+package huffman;
+
 class Node<E> { 
   //Variable declaration
   private E item;
   private Node<E> next;
   private Node<E> prev;
-  private int priority;
+  private long priority;
   
   /** 
    * Node
@@ -37,7 +40,7 @@ class Node<E> {
    * @param item, a generic item to be stored in the node
    * @param priority, the item's priority
    */
-  public Node(E item, int priority) {
+  public Node(E item, long priority) {
     this.item = item;
     this.priority = priority;
     this.next = null;
@@ -103,9 +106,9 @@ class Node<E> {
   /** 
    * getPriority
    * Gets the priority of the node
-   * @return priority, the integer priority of the node
+   * @return priority, the priority of the node
    */
-  public int getPriority(){
+  public long getPriority(){
     return this.priority;
   }
   
@@ -114,7 +117,7 @@ class Node<E> {
    * Sets the priority of the node
    * @param priority, the priority of the node
    */
-  public void setPriority(int priority){
+  public void setPriority(long priority){
     this.priority = priority;
   }
 } //end of Node class
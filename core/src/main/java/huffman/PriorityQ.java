@@ -0,0 +1,135 @@
+/* PriorityQ.java
+ * Purpose: Contans methods, constructors, and variables for priority queues
+ * Creator: Shi Han Qin
+ * Date: 2019-04-01
+ */
+
+package huffman;
+
+//Imports
+import java.util.Arrays;
+
+class PriorityQ <E>{
+  //Variable declaration
+  private Node<E>[] heap; //Binary min heap, the children of index i are at 2i+1 and 2i+2
+  private long[] priorities; //Priority of each node in the heap, kept beside it so comparing does not follow references
+  private long[] order; //When each node was added, so items with the same priority come out first in first out
+  private int size;
+  private long added;
+
+  /**
+   * PriorityQ
+   * Constructor that makes a priority queue
+   */
+  @SuppressWarnings("unchecked")
+  public PriorityQ(){
+    heap = (Node<E>[]) new Node[16];
+    priorities = new long[16];
+    order = new long[16];
+    size = 0;
+    added = 0;
+  }
+
+  /**
+   * enqueue
+   * Adds an object into the priority queue
+   * @param toAdd, the item to be added to the queue
+   * @param priority, the item to be added's corresponding priority
+   */
+  public void enqueue(E toAdd, long priority){
+    if (size == heap.length){ //Out of room, double the arrays
+      heap = Arrays.copyOf(heap, size * 2);
+      priorities = Arrays.copyOf(priorities, size * 2);
+      order = Arrays.copyOf(order, size * 2);
+    }
+    Node<E> newNode = new Node<E>(toAdd, priority); //Create the new node to be added to the queue
+    long newOrder = added++;
+    int i = size++;
+
+    while (i > 0){ //Move parents down until the new node's place is found
+      int parent = (i - 1) >>> 1;
+      if (!before(priority, newOrder, priorities[parent], order[parent])){
+        break;
+      }
+      set(i, heap[parent], priorities[parent], order[parent]);
+      i = parent;
+    }
+    set(i, newNode, priority, newOrder);
+  } //end of enqueue method
+
+  /**
+   * dequeue
+   * Removes item from queue
+   * @return toDequeue, the item removed from the queue
+   */
+  public Node<E> dequeue(){
+    if (size == 0){
+      return null;
+    }
+    Node<E> toDequeue = heap[0]; //The top of the heap is highest priority, so it needs to be dequeued
+    size--;
+    Node<E> last = heap[size]; //The last node is put back in from the top
+    long lastPriority = priorities[size];
+    long lastOrder = order[size];
+    heap[size] = null;
+
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half){ //Move smaller children up until the last node's place is found
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if ((right < size) && before(priorities[right], order[right], priorities[child], order[child])){
+        child = right;
+      }
+      if (!before(priorities[child], order[child], lastPriority, lastOrder)){
+        break;
+      }
+      set(i, heap[child], priorities[child], order[child]);
+      i = child;
+    }
+    if (size > 0){
+      set(i, last, lastPriority, lastOrder);
+    }
+    return toDequeue;
+  }
+
+  /**
+   * size
+   * Finds the numbers of items in the queue
+   * @return size, the numbers of items in the queue
+   */
+  public int size(){
+    return size;
+  }
+
+  /**
+   * isEmpty
+   * Checks if there is anything in the queue
+   * @return Boolean, true if it is empty, false if it is not
+   */
+  public boolean isEmpty(){
+    if (size == 0){
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * before
+   * Checks if one node comes out of the queue before another
+   * @return Boolean, true if the first node has a smaller priority, or the same priority and was added first
+   */
+  private boolean before(long priority1, long order1, long priority2, long order2){
+    return (priority1 < priority2) || ((priority1 == priority2) && (order1 < order2));
+  }
+
+  /**
+   * set
+   * Puts a node and its priority into a place in the heap
+   */
+  private void set(int i, Node<E> node, long priority, long nodeOrder){
+    heap[i] = node;
+    priorities[i] = priority;
+    order[i] = nodeOrder;
+  }
+}
@@ -0,0 +1,122 @@
+/* RingBuffer.java
+ * Purpose: A bounded queue between one producer thread and one consumer thread, without locks
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+class RingBuffer<T>{
+  //Variables
+  private static final int SPINS = 100; //Tries before yielding the core
+  private static final int YIELDS = 10; //Yields before sleeping
+  private static final long PARK_NANOS = 20000;
+  private Object[] slots;
+  private int mask;
+  private AtomicLong head; //Number of items taken, only the consumer moves it
+  private AtomicLong tail; //Number of items put, only the producer moves it
+  private volatile boolean closed;
+
+  /**
+   * RingBuffer
+   * Constructor that makes an empty ring
+   * @param capacity, the most items held at once, rounded up to a power of 2
+   */
+  RingBuffer(int capacity){
+    int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+    this.slots = new Object[size];
+    this.mask = size - 1;
+    this.head = new AtomicLong();
+    this.tail = new AtomicLong();
+    this.closed = false;
+  }
+
+  /**
+   * offer
+   * Adds an item if there is room, only called by the producer
+   * @param item, the item
+   * @return added, false if the ring is full
+   */
+  public boolean offer(T item){
+    long t = tail.get();
+    if (t - head.get() == slots.length){
+      return false;
+    }
+    slots[(int)t & mask] = item;
+    tail.lazySet(t + 1); //Publishes the slot to the consumer
+    return true;
+  }
+
+  /**
+   * poll
+   * Takes the oldest item if there is one, only called by the consumer
+   * @return item, the item, or null if the ring is empty
+   */
+  @SuppressWarnings("unchecked")
+  public T poll(){
+    long h = head.get();
+    if (h == tail.get()){
+      return null;
+    }
+    int slot = (int)h & mask;
+    T item = (T)slots[slot];
+    slots[slot] = null;
+    head.lazySet(h + 1); //Gives the slot back to the producer
+    return item;
+  }
+
+  /**
+   * put
+   * Adds an item, waiting while the ring is full so a fast producer cannot run ahead of the consumer
+   * @param item, the item
+   */
+  public void put(T item) throws IOException{
+    for (int idle = 0; !offer(item); idle++){
+      waitFor(idle);
+    }
+  }
+
+  /**
+   * take
+   * Takes the oldest item, waiting while the ring is empty
+   * @return item, the item
+   */
+  public T take() throws IOException{
+    T item;
+    for (int idle = 0; (item = poll()) == null; idle++){
+      waitFor(idle);
+    }
+    return item;
+  }
+
+  /**
+   * close
+   * Stops every put and take that is waiting or starts later, used when another stage has failed
+   */
+  public void close(){
+    closed = true;
+  }
+
+  /**
+   * waitFor
+   * Backs off a little more each time the other side has not caught up: spin, then yield, then sleep
+   * @param idle, the number of times in a row the ring was full or empty
+   */
+  private void waitFor(int idle) throws IOException{
+    if (closed){
+      throw new IOException("The pipeline was stopped");
+    }
+    if (idle < SPINS){
+      Thread.onSpinWait();
+    } else if (idle < SPINS + YIELDS){
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(PARK_NANOS);
+    }
+  }
+}//end of RingBuffer class
@@ -0,0 +1,194 @@
+/* SeekableMzipChannel.java
+ * Purpose: Reads any range of the original file out of a block mode MZIP file, decoding only the blocks the range touches
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+
+public class SeekableMzipChannel implements SeekableByteChannel{
+  //Variables
+  private RandomAccessFile file;
+  private FileChannel channel;
+  private String name; //File name and extension stored in the header
+  private BlockIndex index; //The sync points: where every block starts in the MZIP file and in the original file
+  private DecodeTable table;
+  private long size;
+  private long position;
+  private int cachedBlock; //The last block decoded, so reads that follow each other decode it once
+  private byte[] cached;
+
+  /**
+   * SeekableMzipChannel
+   * Constructor that reads the header and the block index
+   * @param path, a block mode MZIP file, made with Compression -b or -B
+   */
+  public SeekableMzipChannel(Path path) throws IOException{
+    this.file = new RandomAccessFile(path.toFile(), "r");
+    boolean done = false;
+    try{
+      Decompression decompression = new Decompression();
+      InputStream in = new BufferedInputStream(new FileInputStream(file.getFD()));
+      this.name = decompression.readLine(in);
+      String tree = decompression.readLine(in);
+      CodeTable codes = decompression.readCodes(tree, in);
+      String extra = decompression.readLine(in);
+      if (name == null){
+        throw new IOException("The MZIP data is empty");
+      }
+      if (codes == null){ //The original file was empty
+        this.index = new BlockIndex(0);
+      } else if ((extra == null) || !extra.startsWith("B")){
+        throw new IOException(path + " is not in block mode, compress it with -b to read it at any position");
+      } else {
+        this.index = BlockIndex.read(file, decompression.getHeaderLength(), Decompression.parseBlockSize(extra));
+        this.table = TableCache.shared().getDecodeTable(codes);
+      }
+      this.channel = file.getChannel();
+      this.size = index.getOriginalSize();
+      this.position = 0;
+      this.cachedBlock = -1;
+      done = true;
+    } finally{
+      if (!done){
+        file.close();
+      }
+    }
+  }
+
+  /**
+   * getName
+   * Gets the file name and extension stored in the header
+   * @return name, the stored name
+   */
+  public String getName(){
+    return name;
+  }
+
+  /**
+   * read
+   * Reads from the current position, decoding each block the bytes are in starting from its sync point
+   * @param dst, the buffer the bytes are put in
+   * @return count, the number of bytes read, or -1 at the end of the original file
+   */
+  @Override
+  public synchronized int read(ByteBuffer dst) throws IOException{
+    checkOpen();
+    if (position >= size){
+      return -1;
+    }
+    int count = 0;
+    while (dst.hasRemaining() && (position < size)){
+      int block = index.findBlock(position);
+      if (block != cachedBlock){
+        byte[] data = BlockCompression.readBlock(channel, index.getOffset(block), index.getCompressedLength(block));
+        cached = new Decompression().decodeBlock(index.getType(block), table, data, index.getExtraBits(block), index.getOriginalLength(block));
+        cachedBlock = block;
+      }
+      int start = (int)(position - index.getOriginalOffset(block));
+      int length = Math.min(dst.remaining(), cached.length - start);
+      dst.put(cached, start, length);
+      position += length;
+      count += length;
+    }
+    return count;
+  }
+
+  /**
+   * write
+   * Not supported, the channel is read only
+   */
+  @Override
+  public int write(ByteBuffer src){
+    throw new NonWritableChannelException();
+  }
+
+  /**
+   * position
+   * Gets the position in the original file the next read starts at
+   * @return position, the position
+   */
+  @Override
+  public synchronized long position() throws IOException{
+    checkOpen();
+    return position;
+  }
+
+  /**
+   * position
+   * Moves to a position in the original file, nothing is decoded until the next read
+   * @param newPosition, the position, past the end makes reads return -1
+   * @return channel, this channel
+   */
+  @Override
+  public synchronized SeekableMzipChannel position(long newPosition) throws IOException{
+    checkOpen();
+    if (newPosition < 0){
+      throw new IllegalArgumentException("The position cannot be negative");
+    }
+    position = newPosition;
+    return this;
+  }
+
+  /**
+   * size
+   * Gets the size of the original file
+   * @return size, the number of bytes the MZIP file decodes to
+   */
+  @Override
+  public long size() throws IOException{
+    checkOpen();
+    return size;
+  }
+
+  /**
+   * truncate
+   * Not supported, the channel is read only
+   */
+  @Override
+  public SeekableMzipChannel truncate(long size){
+    throw new NonWritableChannelException();
+  }
+
+  /**
+   * isOpen
+   * Checks if the channel can still be read
+   * @return open, false once it is closed
+   */
+  @Override
+  public boolean isOpen(){
+    return file.getChannel().isOpen();
+  }
+
+  /**
+   * close
+   * Closes the MZIP file
+   */
+  @Override
+  public void close() throws IOException{
+    file.close();
+  }
+
+  /**
+   * checkOpen
+   * Makes sure the channel has not been closed
+   */
+  private void checkOpen() throws IOException{
+    if (!isOpen()){
+      throw new ClosedChannelException();
+    }
+  }
+}//end of SeekableMzipChannel class
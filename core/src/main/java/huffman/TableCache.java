@@ -0,0 +1,120 @@
+/* TableCache.java
+ * Purpose: Keeps the most recently used code tables and decode tables, so repeated jobs skip building them
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class TableCache{
+  //Variables
+  static final int DEFAULT_CAPACITY = 256;
+  private static final TableCache SHARED = new TableCache(DEFAULT_CAPACITY);
+  private LinkedHashMap<Object, Object> entries; //Oldest use first. Keys are wrapped copies, so they compare by content
+  private int capacity;
+
+  /**
+   * TableCache
+   * Constructor that makes an empty cache
+   * @param capacity, the most tables kept, the least recently used is dropped first
+   */
+  TableCache(int capacity){
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<Object, Object>(16, 0.75f, true){
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest){
+        return size() > TableCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * shared
+   * Gets the cache used by Compression and Decompression
+   * @return cache, the shared cache
+   */
+  static TableCache shared(){
+    return SHARED;
+  }
+
+  /**
+   * getCodeTable
+   * Gets the code table for a histogram, building it with the usual stages if the same counts have not been seen lately
+   * @param frequency, the count of each byte from 0 to 255
+   * @return table, the length limited canonical code table
+   */
+  CodeTable getCodeTable(long[] frequency){
+    LongBuffer key = LongBuffer.wrap(frequency.clone()); //A copy, so the caller can change its array
+    CodeTable table = (CodeTable)get(key);
+    if (table == null){
+      Compression<String> compression = new Compression<String>();
+      HuffmanTree huffTree = new HuffmanTree();
+      Metrics.Timer timer = Metrics.start("queue", null);
+      huffTree.sortLeaves(frequency);
+      Metrics.stop(timer, 0, 0);
+      timer = Metrics.start("tree", null);
+      huffTree.joinAll();
+      Metrics.stop(timer, 0, 0);
+      timer = Metrics.start("codes", null);
+      table = compression.makeCodeTable(huffTree, frequency, Compression.MAX_CODE_LENGTH);
+      Metrics.stop(timer, 0, 0);
+      put(key, table);
+    }
+    return table;
+  }
+
+  /**
+   * getDecodeTable
+   * Gets the decode table for a code table, building it if the same code lengths have not been seen lately.
+   * Tables are kept by their code lengths, so one with codes that are not canonical is always built new
+   * @param codes, the code table the data was encoded with
+   * @return table, the lookup tables, which are only read so many threads can share them
+   */
+  DecodeTable getDecodeTable(CodeTable codes){
+    if (!codes.isCanonical()){ //Same lengths can have other codes
+      return new DecodeTable(codes);
+    }
+    ByteBuffer key = ByteBuffer.wrap(codes.writeLengths());
+    DecodeTable table = (DecodeTable)get(key);
+    if (table == null){
+      table = new DecodeTable(codes);
+      put(key, table);
+    }
+    return table;
+  }
+
+  /**
+   * size
+   * Gets the number of tables kept
+   * @return size, the number of tables
+   */
+  synchronized int size(){
+    return entries.size();
+  }
+
+  /**
+   * get
+   * Looks up a table and marks it as just used
+   * @param key, the wrapped histogram or code lengths
+   * @return table, the table, or null if it is not kept
+   */
+  private synchronized Object get(Object key){
+    return entries.get(key);
+  }
+
+  /**
+   * put
+   * Keeps a table, dropping the least recently used one if the cache is full
+   * @param key, the wrapped histogram or code lengths
+   * @param table, the table
+   */
+  private synchronized void put(Object key, Object table){
+    entries.put(key, table);
+  }
+}//end of TableCache class
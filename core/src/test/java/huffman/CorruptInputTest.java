@@ -0,0 +1,228 @@
+/* CorruptInputTest.java
+ * Purpose: Feeds damaged MZIP data to the decoder and checks it fails with an IOException, never anything else
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CorruptInputTest{
+  //Variables
+  private static final int SAMPLE_SIZE = 1 << 16; //Bytes of Frankenstein the damaged data is made from
+  private static final int DAMAGED = 300; //Damaged copies tried for each mode
+  @TempDir
+  Path directory;
+
+  /**
+   * badHeaders
+   * Header lines that are cut off, out of range or not numbers at all
+   * @param header, the lines after the name line, with \n for each line end
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"Cx\n", "C\n", "C-5\n", "C0\n", "C300\n", "C99999999999\n", "C3\n",
+      "((1 x) 2)\n", "((1 2)\n", "(\n", "A\nx\n", "A\n-1\n", "S\nS-1\n", "S\nSx\n", "R\nR\n",
+      "Z\nZ3\n", "Z\nZx\n", "O\n9\n", "O\nx\n"})
+  void badHeaders(String header) throws IOException{
+    byte[] data = ("sample.TXT\n" + header).replace("\n", "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+    assertThrows(IOException.class, () -> decode(data));
+  }
+
+  /**
+   * badExtraBits
+   * A good table followed by a count of extra bits that is not from 0 to 7, or no count at all
+   * @param extra, the third line of the header
+   */
+  @ParameterizedTest
+  @ValueSource(strings = {"8", "-1", "x", ""})
+  void badExtraBits(String extra) throws IOException{
+    byte[] good = compress(0);
+    int start = tableEnd(good);
+    int end = start;
+    while (good[end++] != '\n'){
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(good, 0, start);
+    out.writeBytes((extra + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    out.write(good, end, good.length - end);
+    byte[] data = out.toByteArray();
+    assertThrows(IOException.class, () -> decode(data));
+  }
+
+  /**
+   * cutOffTable
+   * Packed code lengths that end before the count in the header says they do
+   */
+  @Test
+  void cutOffTable() throws IOException{
+    byte[] good = compress(0);
+    for (int end = lineEnd(good) + 1; end <= tableEnd(good); end++){ //Only the name line is an empty file
+      byte[] data = Arrays.copyOf(good, end);
+      assertThrows(IOException.class, () -> decode(data), "Cut at " + end);
+    }
+  }
+
+  /**
+   * damaged
+   * Cuts and flipped bits anywhere in the data of each mode. The data may still decode to other bytes, as there
+   * is no checksum, but any failure must be an IOException
+   * @param mode, 0 plain, 1 block, 2 interleaved, 3 adaptive, 4 context, 5 LZ
+   */
+  @ParameterizedTest
+  @ValueSource(ints = {0, 1, 2, 3, 4, 5})
+  void damaged(int mode) throws IOException{
+    byte[] good = compress(mode);
+    Random random = new Random(mode); //Fixed seed so a failure can be run again
+    for (int i = 0; i < DAMAGED; i++){
+      byte[] data;
+      if (i % 3 == 0){
+        data = Arrays.copyOf(good, random.nextInt(good.length));
+      } else {
+        data = good.clone();
+        int position = (i % 3 == 1) ? random.nextInt(Math.min(good.length, 600)) : random.nextInt(good.length);
+        data[position] ^= (byte)(1 << random.nextInt(8));
+      }
+      try{
+        decode(data);
+      } catch (IOException e){ //Expected for most damage
+      }
+    }
+  }
+
+  /**
+   * badBlockIndex
+   * A block index entry with a negative length, or a length past the index, and no half file left behind
+   */
+  @Test
+  void badBlockIndex() throws IOException{
+    Path source = Files.write(directory.resolve("sample.txt"), sample());
+    Path mzip = directory.resolve("sample.MZIP");
+    Compression.compress(source, mzip, 1 << 12, false);
+    byte[] good = Files.readAllBytes(mzip);
+    int indexOffset = (int)readLong(good, good.length - BlockIndex.FOOTER_SIZE + 4);
+    Path target = directory.resolve("out.txt");
+    for (int field : new int[] {1, 5, 9}){ //Original length, compressed length and extra bits of the first entry
+      for (int value : new int[] {0x80, 0x7F}){
+        byte[] data = good.clone();
+        data[indexOffset + field] = (byte)value;
+        Files.write(mzip, data);
+        assertThrows(IOException.class, () -> Decompression.decompress(mzip, target));
+        assertFalse(Files.exists(target));
+      }
+    }
+  }
+
+  /**
+   * compress
+   * Compresses the sample in a mode
+   * @param mode, 0 plain, 1 block, 2 interleaved, 3 adaptive, 4 context, 5 LZ
+   * @return data, the MZIP data
+   */
+  private static byte[] compress(int mode) throws IOException{
+    byte[] sample = sample();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if (mode == 0){
+      Compression.compress(new ByteArrayInputStream(sample), out, "sample.txt");
+    } else if (mode == 3){
+      Compression.compressAdaptive(new ByteArrayInputStream(sample), out, "sample.txt");
+    } else if (mode == 4){
+      Compression.compressContext(new ByteArrayInputStream(sample), out, "sample.txt");
+    } else if (mode == 5){
+      Compression.compressLz(new ByteArrayInputStream(sample), out, "sample.txt", 6, 1 << 16);
+    } else { //Block modes only compress files
+      Path directory = Files.createTempDirectory("huffman");
+      try{
+        Path source = Files.write(directory.resolve("sample.txt"), sample);
+        Path mzip = directory.resolve("sample.MZIP");
+        Compression.compress(source, mzip, 1 << 12, false, (mode == 2) ? 4 : 1);
+        out.write(Files.readAllBytes(mzip));
+        Files.delete(mzip);
+        Files.delete(source);
+      } finally{
+        Files.delete(directory);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * sample
+   * Gets the start of Frankenstein
+   * @return sample, the bytes
+   */
+  private static byte[] sample() throws IOException{
+    return Arrays.copyOf(TestCorpus.make("frankenstein"), SAMPLE_SIZE);
+  }
+
+  /**
+   * decode
+   * Decompresses MZIP data into nowhere
+   * @param data, the MZIP data
+   */
+  private static void decode(byte[] data) throws IOException{
+    Decompression.decompress(new ByteArrayInputStream(data), OutputStream.nullOutputStream());
+  }
+
+  /**
+   * lineEnd
+   * Finds where the name line ends
+   * @param data, the MZIP data
+   * @return end, the index after its \r\n
+   */
+  private static int lineEnd(byte[] data){
+    int p = 0;
+    while (data[p] != '\n'){
+      p++;
+    }
+    return p + 1;
+  }
+
+  /**
+   * tableEnd
+   * Finds where the packed code lengths and their \r\n end, which is where the extra bits line starts. The
+   * lengths are bytes, so they are skipped by their count rather than searched for a line end
+   * @param data, plain MZIP data
+   * @return end, the index of the extra bits line
+   */
+  private static int tableEnd(byte[] data){
+    int start = lineEnd(data);
+    int p = start;
+    while (data[p] != '\r'){
+      p++;
+    }
+    int count = Integer.parseInt(new String(data, start + 1, p - start - 1, StandardCharsets.ISO_8859_1));
+    return p + 2 + count + 2;
+  }
+
+  /**
+   * readLong
+   * Reads a big endian long out of an array
+   * @param data, the array
+   * @param p, the index of the first byte
+   * @return value, the long
+   */
+  private static long readLong(byte[] data, int p){
+    long value = 0;
+    for (int i = 0; i < 8; i++){
+      value = (value << 8) | (data[p + i] & 0xFF);
+    }
+    return value;
+  }
+}//end of CorruptInputTest class
@@ -0,0 +1,249 @@
+/* RoundTripTest.java
+ * Purpose: Compresses each corpus in every mode and checks the decompressed bytes are the same as the original
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoundTripTest{
+  //Variables
+  private static final int BLOCK_SIZE = 1 << 16; //Small blocks, so every corpus is more than one
+  @TempDir
+  Path directory;
+
+  /**
+   * corpora
+   * The names of the corpora every test runs on
+   * @return names, the names
+   */
+  static String[] corpora(){
+    return TestCorpus.NAMES;
+  }
+
+  /**
+   * plain
+   * One stream with one table
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void plain(String corpus) throws IOException{
+    Path source = write(corpus);
+    Compression.compress(source, mzip(corpus));
+    check(source);
+  }
+
+  /**
+   * blocks
+   * Block mode (-b), with blocks small enough that there are several
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void blocks(String corpus) throws IOException{
+    Path source = write(corpus);
+    Compression.compress(source, mzip(corpus), BLOCK_SIZE, false);
+    check(source);
+  }
+
+  /**
+   * sampled
+   * Block mode with counts estimated from a sample (-s)
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void sampled(String corpus) throws IOException{
+    Path source = write(corpus);
+    Compression.compress(source, mzip(corpus), BLOCK_SIZE, true);
+    check(source);
+  }
+
+  /**
+   * interleaved
+   * Block mode with four interleaved streams in each block (-i 4)
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void interleaved(String corpus) throws IOException{
+    Path source = write(corpus);
+    Compression.compress(source, mzip(corpus), BLOCK_SIZE, false, 4);
+    check(source);
+  }
+
+  /**
+   * append
+   * Compresses the first part of the file, then appends the rest in two steps (-A), the last of which adds nothing
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void append(String corpus) throws IOException{
+    byte[] data = TestCorpus.make(corpus);
+    Path source = directory.resolve(corpus + ".bin");
+    Path target = mzip(corpus);
+    int[] ends = {data.length / 3, data.length / 3 + 1, data.length, data.length};
+    for (int end : ends){
+      Files.write(source, Arrays.copyOf(data, end));
+      Compression.append(source, target, BLOCK_SIZE, 1);
+    }
+    check(source);
+  }
+
+  /**
+   * adaptive
+   * Adaptive mode (-a), with no table in the header
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void adaptive(String corpus) throws IOException{
+    Path source = write(corpus);
+    Compression.compressAdaptive(source, mzip(corpus));
+    check(source);
+  }
+
+  /**
+   * context
+   * Order 1 context mode (-c)
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void context(String corpus) throws IOException{
+    Path source = write(corpus);
+    Compression.compressContext(source, mzip(corpus));
+    check(source);
+  }
+
+  /**
+   * lz
+   * LZ mode (-z) at the default level, and at the fastest level with a small window
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void lz(String corpus) throws IOException{
+    Path source = write(corpus);
+    Compression.compressLz(source, mzip(corpus), 6, 1 << 20);
+    check(source);
+    Compression.compressLz(source, mzip(corpus), 1, 1 << 10);
+    check(source);
+  }
+
+  /**
+   * dictionary
+   * A dictionary trained on Frankenstein (-d), saved and loaded again, then used for every corpus
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void dictionary(String corpus) throws IOException{
+    Path sample = write("frankenstein");
+    Path saved = directory.resolve("frankenstein.MZDICT");
+    Dictionary.train(List.of(sample)).save(saved);
+    Dictionary dictionary = Dictionary.load(saved);
+    Path source = write(corpus);
+    Compression.compress(source, mzip(corpus), dictionary);
+    check(source);
+  }
+
+  /**
+   * archive
+   * An archive of the corpus and Frankenstein, with one entry read back by name and then every entry
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void archive(String corpus) throws IOException{
+    Path source = write(corpus);
+    Path other = Files.createDirectory(directory.resolve("other")).resolve("sample.txt");
+    Files.write(other, TestCorpus.make("frankenstein"));
+    Path archive = directory.resolve("corpus.MZAR");
+    Archive.create(archive, List.of(source, other), null);
+    Path one = directory.resolve("one.bin");
+    Archive.extract(archive, corpus + ".bin", one);
+    assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(one));
+    Path all = Files.createDirectory(directory.resolve("all"));
+    Archive.extractAll(archive, all);
+    assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(all.resolve(corpus + ".bin")));
+    assertArrayEquals(Files.readAllBytes(other), Files.readAllBytes(all.resolve("sample.txt")));
+  }
+
+  /**
+   * streams
+   * The stream API of the plain, adaptive, context and LZ modes, which never see a file
+   * @param corpus, the name of the corpus
+   */
+  @ParameterizedTest
+  @MethodSource("corpora")
+  void streams(String corpus) throws IOException{
+    byte[] data = TestCorpus.make(corpus);
+    for (int mode = 0; mode < 4; mode++){
+      ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+      ByteArrayInputStream in = new ByteArrayInputStream(data);
+      if (mode == 0){
+        Compression.compress(in, compressed, corpus + ".bin");
+      } else if (mode == 1){
+        Compression.compressAdaptive(in, compressed, corpus + ".bin");
+      } else if (mode == 2){
+        Compression.compressContext(in, compressed, corpus + ".bin");
+      } else {
+        Compression.compressLz(in, compressed, corpus + ".bin", 6, 1 << 20);
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      String name = Decompression.decompress(new ByteArrayInputStream(compressed.toByteArray()), out);
+      assertEquals(corpus + ".BIN", name); //The header keeps the extension in capitals
+      assertArrayEquals(data, out.toByteArray(), "Mode " + mode);
+    }
+  }
+
+  /**
+   * write
+   * Writes a corpus into the temporary directory
+   * @param corpus, the name of the corpus
+   * @return source, the file, named after the corpus with a .bin extension
+   */
+  private Path write(String corpus) throws IOException{
+    return Files.write(directory.resolve(corpus + ".bin"), TestCorpus.make(corpus));
+  }
+
+  /**
+   * mzip
+   * Gets the MZIP file a corpus is compressed into
+   * @param corpus, the name of the corpus
+   * @return target, the MZIP file
+   */
+  private Path mzip(String corpus){
+    return directory.resolve(corpus + ".MZIP");
+  }
+
+  /**
+   * check
+   * Decompresses the MZIP file of a source file and compares the bytes
+   * @param source, the original file
+   */
+  private void check(Path source) throws IOException{
+    String name = source.getFileName().toString();
+    Path target = directory.resolve(name + ".out");
+    Decompression.decompress(mzip(name.substring(0, name.lastIndexOf('.'))), target);
+    assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+  }
+}//end of RoundTripTest class
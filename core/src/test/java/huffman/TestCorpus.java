@@ -0,0 +1,53 @@
+/* TestCorpus.java
+ * Purpose: The four corpora the benchmarks run on, made the same way so the tests cover the same bytes
+ * Creator: Shi Han Qin
+ * Date: 2026-10-18
+ */
+
+package huffman;
+
+//Imports
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+class TestCorpus{
+  //Variables
+  static final String[] NAMES = {"frankenstein", "random", "skewed", "repeated"};
+  static final int GENERATED_SIZE = 1 << 20; //Size of the corpora that are made up rather than read
+
+  /**
+   * make
+   * Makes the bytes of a corpus, as benchmarks/Corpus does
+   * @param name, frankenstein, random, skewed or repeated
+   * @return data, the bytes of the corpus
+   */
+  static byte[] make(String name) throws IOException{
+    Random random = new Random(20190401); //Same seed as the benchmarks
+    byte[] data = new byte[GENERATED_SIZE];
+    if (name.equals("frankenstein")){
+      InputStream in = TestCorpus.class.getResourceAsStream("/Frankenstein.txt");
+      if (in == null){
+        throw new IOException("Frankenstein.txt is missing from the test resources");
+      }
+      try{
+        return in.readAllBytes();
+      } finally{
+        in.close();
+      }
+    } else if (name.equals("random")){ //Every byte equally likely, does not compress
+      random.nextBytes(data);
+    } else if (name.equals("skewed")){ //Each byte half as likely as the one before, makes very deep trees
+      for (int i = 0; i < data.length; i++){
+        data[i] = (byte)Math.min(Long.numberOfTrailingZeros(random.nextLong() | (1L << 40)), 255);
+      }
+    } else if (name.equals("repeated")){ //One byte over and over, a tree with a single leaf
+      for (int i = 0; i < data.length; i++){
+        data[i] = 'a';
+      }
+    } else {
+      throw new IllegalArgumentException("Unknown corpus: " + name);
+    }
+    return data;
+  }
+}//end of TestCorpus class